@@ -0,0 +1,42 @@
+package com.example.Musicalog.benchmark;
+
+import com.example.Musicalog.domain.Album;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlbumCodecBenchmark {
+
+    @Param({"false", "true"})
+    public boolean withCover;
+
+    private ObjectMapper objectMapper;
+    private Album album;
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        album = BenchmarkCatalog.album(42, withCover ? BenchmarkCatalog.cover(42) : null);
+        json = objectMapper.writeValueAsBytes(album);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return objectMapper.writeValueAsBytes(album);
+    }
+
+    @Benchmark
+    public Album decode() throws IOException {
+        return objectMapper.readValue(json, Album.class);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.Musicalog.benchmark;
+
+import com.example.Musicalog.domain.Album;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AlbumControllerBenchmark {
+
+    private static final int TARGETS = 64;
+
+    @Param({"1000"})
+    public int albums;
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private MongoDBContainer mongo;
+    private ConfigurableApplicationContext context;
+    private WebTestClient webTestClient;
+    private int[] targets;
+    private int next;
+    private int saved;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mongo = BenchmarkCatalog.startMongo();
+        context = BenchmarkCatalog.startApplication(mongo, WebApplicationType.REACTIVE, cached);
+        BenchmarkCatalog.seed(context.getBean(ReactiveMongoTemplate.class), albums).block();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        webTestClient = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + port + "/api/album")
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(-1))
+                .build();
+        targets = new Random(42).ints(TARGETS, 0, albums).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        mongo.stop();
+    }
+
+    @Benchmark
+    public List<Album> getAll() {
+        return webTestClient.get().uri("/all")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Album.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Benchmark
+    public Album getById() {
+        return webTestClient.get().uri("/{id}", BenchmarkCatalog.id(nextTarget()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Album.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Benchmark
+    public Album save() {
+        return webTestClient.post().uri("/save")
+                .bodyValue(BenchmarkCatalog.album(albums + saved++, null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Album.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private int nextTarget() {
+        next = (next + 1) % TARGETS;
+        return targets[next];
+    }
+}
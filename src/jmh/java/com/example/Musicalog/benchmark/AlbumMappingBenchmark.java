@@ -0,0 +1,50 @@
+package com.example.Musicalog.benchmark;
+
+import com.example.Musicalog.domain.Album;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlbumMappingBenchmark {
+
+    @Param({"false", "true"})
+    public boolean withCover;
+
+    private MappingMongoConverter converter;
+    private Album album;
+    private Document document;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setInitialEntitySet(Set.of(Album.class));
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+        album = BenchmarkCatalog.album(42, withCover ? BenchmarkCatalog.cover(42) : null);
+        document = write();
+    }
+
+    @Benchmark
+    public Document write() {
+        Document target = new Document();
+        converter.write(album, target);
+        return target;
+    }
+
+    @Benchmark
+    public Album read() {
+        return converter.read(Album.class, document);
+    }
+}
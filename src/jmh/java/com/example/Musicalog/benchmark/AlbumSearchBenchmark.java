@@ -0,0 +1,77 @@
+package com.example.Musicalog.benchmark;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.repository.AlbumIndexes;
+import com.example.Musicalog.repository.AlbumRepository;
+import com.example.Musicalog.repository.AlbumRepositoryCustomImpl;
+import com.example.Musicalog.repository.AlbumSearchKeys;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AlbumSearchBenchmark {
+
+    private static final int QUERIES = 64;
+
+    @Param({"100000", "1000000"})
+    public int albums;
+
+    private MongoDBContainer mongo;
+    private MongoClient client;
+    private AlbumRepository repository;
+    private int[] targets;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mongo = BenchmarkCatalog.startMongo();
+        client = MongoClients.create(mongo.getReplicaSetUrl());
+        ReactiveMongoTemplate template = new ReactiveMongoTemplate(client, "benchmark");
+        BenchmarkCatalog.seed(template, albums).block();
+        new AlbumIndexes(template).ensureIndexes().block();
+        repository = new ReactiveMongoRepositoryFactory(template)
+                .getRepository(AlbumRepository.class, RepositoryFragments.just(new AlbumRepositoryCustomImpl(template)));
+        targets = new Random(42).ints(QUERIES, 0, albums).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        mongo.stop();
+    }
+
+    @Benchmark
+    public List<Album> unanchoredRegex() {
+        return repository.findByTitleContainingIgnoreCase(BenchmarkCatalog.title(nextTarget())).collectList().block();
+    }
+
+    @Benchmark
+    public List<Album> indexedPrefix() {
+        return repository.findByTitleKeyMatching(AlbumSearchKeys.prefixPattern(BenchmarkCatalog.title(nextTarget()))).collectList().block();
+    }
+
+    @Benchmark
+    public List<Album> textIndex() {
+        return repository.findAllBy(TextCriteria.forDefaultLanguage().matching(String.valueOf(nextTarget()))).collectList().block();
+    }
+
+    private int nextTarget() {
+        next = (next + 1) % QUERIES;
+        return targets[next];
+    }
+}
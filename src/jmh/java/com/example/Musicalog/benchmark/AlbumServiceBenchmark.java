@@ -0,0 +1,78 @@
+package com.example.Musicalog.benchmark;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.service.AlbumService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AlbumServiceBenchmark {
+
+    private static final int TARGETS = 64;
+
+    @Param({"1000", "10000"})
+    public int albums;
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private MongoDBContainer mongo;
+    private ConfigurableApplicationContext context;
+    private AlbumService service;
+    private int[] targets;
+    private int next;
+    private int saved;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mongo = BenchmarkCatalog.startMongo();
+        context = BenchmarkCatalog.startApplication(mongo, WebApplicationType.NONE, cached);
+        BenchmarkCatalog.seed(context.getBean(ReactiveMongoTemplate.class), albums).block();
+        service = context.getBean(AlbumService.class);
+        targets = new Random(42).ints(TARGETS, 0, albums).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        mongo.stop();
+    }
+
+    @Benchmark
+    public List<Album> findAll() {
+        return service.findAll().collectList().block();
+    }
+
+    @Benchmark
+    public Album findById() {
+        return service.findById(BenchmarkCatalog.id(nextTarget())).block();
+    }
+
+    @Benchmark
+    public Album save() {
+        return service.save(BenchmarkCatalog.album(albums + saved++, null)).block();
+    }
+
+    @Benchmark
+    public Album update() {
+        Album album = BenchmarkCatalog.album(nextTarget(), null);
+        return service.update(new Album(album.id(), album.title(), album.artistName(), album.type(), album.stock() + 1, null, null), null).block();
+    }
+
+    private int nextTarget() {
+        next = (next + 1) % TARGETS;
+        return targets[next];
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.Musicalog.benchmark;
+
+import com.example.Musicalog.repository.AlbumRepository;
+import com.example.Musicalog.repository.AlbumRepositoryCustomImpl;
+import com.example.Musicalog.service.AlbumSuggestIndex;
+import com.example.Musicalog.service.event.AlbumSavedEvent;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx8g")
+public class AlbumSuggestBenchmark {
+
+    private static final int QUERIES = 1_024;
+
+    @Param({"1000000", "3000000"})
+    public int albums;
+
+    private MongoDBContainer mongo;
+    private MongoClient client;
+    private AlbumSuggestIndex index;
+    private String[] prefixes;
+    private final AtomicInteger saved = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mongo = BenchmarkCatalog.startMongo();
+        client = MongoClients.create(mongo.getReplicaSetUrl());
+        ReactiveMongoTemplate template = new ReactiveMongoTemplate(client, "benchmark");
+        BenchmarkCatalog.seed(template, albums).block();
+        AlbumRepository repository = new ReactiveMongoRepositoryFactory(template)
+                .getRepository(AlbumRepository.class, RepositoryFragments.just(new AlbumRepositoryCustomImpl(template)));
+        index = new AlbumSuggestIndex(repository);
+        index.build().block();
+        Random random = new Random(42);
+        prefixes = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String title = BenchmarkCatalog.title(random.nextInt(albums));
+            prefixes[i] = title.substring(0, Math.min(title.length(), 3 + random.nextInt(12)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        mongo.stop();
+    }
+
+    @Benchmark
+    public List<String> suggest() {
+        return suggestTitle();
+    }
+
+    @Benchmark
+    @Group("suggestWhileSaving")
+    @GroupThreads(3)
+    public List<String> suggestDuringMerges() {
+        return suggestTitle();
+    }
+
+    @Benchmark
+    @Group("suggestWhileSaving")
+    @GroupThreads(1)
+    public void saveNewAlbums() {
+        index.onAlbumSaved(new AlbumSavedEvent(BenchmarkCatalog.album(albums + saved.getAndIncrement(), null)));
+    }
+
+    private List<String> suggestTitle() {
+        return index.suggestTitles(prefixes[ThreadLocalRandom.current().nextInt(QUERIES)], 10).block();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.Musicalog.benchmark;
+
+import com.example.Musicalog.MusicalogApplication;
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.Cover;
+import com.example.Musicalog.domain.MediaType;
+import com.example.Musicalog.repository.AlbumSearchKeys;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public final class BenchmarkCatalog {
+
+    static final String COLLECTION = "album";
+    public static final String MONGO_IMAGE = "mongo:7.0.5";
+    static final String CACHE_DISABLED = "musicalog.cache.maximum-weight=0";
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final String[] ADJECTIVES = {
+            "Blue", "Electric", "Silent", "Golden", "Broken", "Velvet", "Midnight", "Crimson", "Wild", "Hollow",
+            "Neon", "Frozen", "Burning", "Gentle", "Restless", "Distant", "Sacred", "Lonely", "Shining", "Secret"
+    };
+    private static final String[] NOUNS = {
+            "River", "Highway", "Garden", "Echo", "Horizon", "Thunder", "Mirror", "Ocean", "Canyon", "Harbor",
+            "Dream", "Machine", "Forest", "Signal", "Desert", "Mountain", "Shadow", "Station", "Island", "Skyline"
+    };
+    private static final String[] ARTIST_NAMES = {
+            "Beatles", "Björk", "Motörhead", "Beyoncé", "Radiohead", "Portishead", "Massive Attack", "Sigur Rós",
+            "Daft Punk", "Pink Floyd", "Fleetwood Mac", "Kraftwerk", "Nirvana", "Queen", "Blondie", "Metallica"
+    };
+
+    private BenchmarkCatalog() {
+    }
+
+    static MongoDBContainer startMongo() {
+        MongoDBContainer mongo = new MongoDBContainer(DockerImageName.parse(MONGO_IMAGE));
+        mongo.start();
+        return mongo;
+    }
+
+    static ConfigurableApplicationContext startApplication(MongoDBContainer mongo, WebApplicationType webApplicationType, boolean cached) {
+        SpringApplicationBuilder application = new SpringApplicationBuilder(MusicalogApplication.class)
+                .web(webApplicationType)
+                .properties(
+                        "spring.data.mongodb.uri=" + mongo.getReplicaSetUrl("musicalog"),
+                        "server.port=0",
+                        "logging.level.root=WARN");
+        if (!cached) {
+            application.properties(CACHE_DISABLED);
+        }
+        return application.run();
+    }
+
+    static Album album(int index, Cover cover) {
+        return new Album(id(index), title(index), artistName(index), index % 2 == 0 ? MediaType.VINYL : MediaType.CD, index % 50, cover, null);
+    }
+
+    static Cover cover(int index) {
+        return new Cover(new ObjectId().toHexString(), "image/jpeg", 250_000L + index, "%064x".formatted(index));
+    }
+
+    static String id(int index) {
+        return "album-%07d".formatted(index);
+    }
+
+    static String title(int index) {
+        return "%s %s %d".formatted(ADJECTIVES[index % ADJECTIVES.length], NOUNS[(index / ADJECTIVES.length) % NOUNS.length], index);
+    }
+
+    static String artistName(int index) {
+        return "%s %d".formatted(ARTIST_NAMES[index % ARTIST_NAMES.length], index % 1_000);
+    }
+
+    static Mono<Void> seed(ReactiveMongoTemplate template, int albums) {
+        return template.getCollection(COLLECTION)
+                .flatMapMany(collection -> Flux.range(0, albums)
+                        .map(BenchmarkCatalog::document)
+                        .buffer(BATCH_SIZE)
+                        .concatMap(batch -> Mono.from(collection.insertMany(batch))))
+                .then();
+    }
+
+    private static Document document(int index) {
+        String title = title(index);
+        String artistName = artistName(index);
+        return new Document("_id", id(index))
+                .append("title", title)
+                .append("artistName", artistName)
+                .append("type", (index % 2 == 0 ? MediaType.VINYL : MediaType.CD).name())
+                .append("stock", index % 50)
+                .append(AlbumSearchKeys.TITLE_KEY, AlbumSearchKeys.normalize(title))
+                .append(AlbumSearchKeys.ARTIST_NAME_KEY, AlbumSearchKeys.normalize(artistName))
+                .append("version", 0L);
+    }
+}
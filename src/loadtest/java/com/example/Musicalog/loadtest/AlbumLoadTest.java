@@ -0,0 +1,163 @@
+package com.example.Musicalog.loadtest;
+
+import com.example.Musicalog.MusicalogApplication;
+import com.example.Musicalog.benchmark.BenchmarkCatalog;
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.AlbumImportResult;
+import com.example.Musicalog.domain.AlbumSummary;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class AlbumLoadTest {
+
+    private static final Duration TICK = Duration.ofMillis(1);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestSettings settings;
+    private final WebClient client;
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+    private final Endpoint[] weightedEndpoints;
+
+    AlbumLoadTest(LoadTestSettings settings, String baseUrl) {
+        this.settings = settings;
+        this.client = WebClient.builder()
+                .baseUrl(baseUrl + "/api/album")
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(ConnectionProvider.builder("loadtest")
+                        .maxConnections(1_000)
+                        .pendingAcquireMaxCount(-1)
+                        .build())))
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(-1))
+                .build();
+        List<Endpoint> endpoints = new ArrayList<>();
+        settings.mix().forEach((endpoint, weight) -> {
+            stats.put(endpoint, new EndpointStats());
+            for (int i = 0; i < weight; i++) {
+                endpoints.add(endpoint);
+            }
+        });
+        this.weightedEndpoints = endpoints.toArray(Endpoint[]::new);
+    }
+
+    public static void main(String[] args) {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        if (!settings.embedded()) {
+            new AlbumLoadTest(settings, settings.baseUrl()).run();
+            return;
+        }
+        try (MongoDBContainer mongo = new MongoDBContainer(DockerImageName.parse(BenchmarkCatalog.MONGO_IMAGE))) {
+            mongo.start();
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MusicalogApplication.class)
+                    .properties(
+                            "spring.data.mongodb.uri=" + mongo.getReplicaSetUrl("musicalog"),
+                            "server.port=0",
+                            "logging.level.root=WARN")
+                    .run()) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                new AlbumLoadTest(settings, "http://localhost:" + port).run();
+            }
+        }
+    }
+
+    void run() {
+        List<String> ids = seed().then(albumIds()).block();
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalStateException("No albums to load test against, set loadtest.albums above 0");
+        }
+        System.out.printf("Driving %d req/s for %s after %s warmup against %d albums%n",
+                settings.rate(), settings.duration(), settings.warmup(), ids.size());
+
+        long start = System.nanoTime();
+        long recordFrom = start + settings.warmup().toNanos();
+        long total = (settings.warmup().plus(settings.duration()).toNanos() * settings.rate()) / 1_000_000_000L;
+        double intervalNanos = 1e9 / settings.rate();
+
+        try {
+            Flux.interval(TICK)
+                    .onBackpressureDrop()
+                    .scan(new long[] { 0, 0 }, (sent, tick) -> {
+                        long due = Math.min(total, (long) ((System.nanoTime() - start) / intervalNanos));
+                        return new long[] { sent[1], due };
+                    })
+                    .takeUntil(window -> window[1] >= total)
+                    .concatMapIterable(window -> range(window[0], window[1]))
+                    .flatMap(sequence -> {
+                        long intended = start + (long) (sequence * intervalNanos);
+                        return execute(weightedEndpoints[ThreadLocalRandom.current().nextInt(weightedEndpoints.length)], ids, intended, recordFrom);
+                    }, Integer.MAX_VALUE)
+                    .then()
+                    .block(settings.warmup().plus(settings.duration()).plus(DRAIN_TIMEOUT));
+        } catch (IllegalStateException e) {
+            System.out.printf("Requests still in flight %s after the last one was due, reporting the ones that completed (%s)%n",
+                    DRAIN_TIMEOUT, e.getMessage());
+        }
+
+        report();
+    }
+
+    private Mono<Void> execute(Endpoint endpoint, List<String> ids, long intended, long recordFrom) {
+        return endpoint.call(client, ids)
+                .then(Mono.fromRunnable(() -> {
+                    if (intended >= recordFrom) {
+                        stats.get(endpoint).recordSuccess(System.nanoTime() - intended);
+                    }
+                }))
+                .onErrorResume(e -> {
+                    if (intended >= recordFrom) {
+                        stats.get(endpoint).recordError();
+                    }
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<Void> seed() {
+        if (settings.albums() == 0) {
+            return Mono.empty();
+        }
+        return client.post().uri("/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .body(Flux.range(0, settings.albums()).map(index -> Endpoint.album(null, index)), Album.class)
+                .retrieve()
+                .bodyToFlux(AlbumImportResult.class)
+                .then();
+    }
+
+    private Mono<List<String>> albumIds() {
+        return client.get().uri("/all?view=summary")
+                .retrieve()
+                .bodyToFlux(AlbumSummary.class)
+                .map(AlbumSummary::id)
+                .collectList();
+    }
+
+    private void report() {
+        System.out.println(EndpointStats.header());
+        stats.forEach((endpoint, endpointStats) -> System.out.println(endpointStats.report(endpoint.label(), settings.duration())));
+    }
+
+    private static List<Long> range(long from, long to) {
+        List<Long> sequence = new ArrayList<>((int) Math.max(0, to - from));
+        for (long i = from; i < to; i++) {
+            sequence.add(i);
+        }
+        return sequence;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.Musicalog.loadtest;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+enum Endpoint {
+
+    ALL("all", "GET /all") {
+        @Override
+        Mono<?> call(WebClient client, List<String> ids) {
+            return client.get().uri("/all")
+                    .accept(org.springframework.http.MediaType.APPLICATION_JSON)
+                    .retrieve()
+                    .bodyToFlux(Album.class)
+                    .then();
+        }
+    },
+    TITLE("title", "GET /all/title") {
+        @Override
+        Mono<?> call(WebClient client, List<String> ids) {
+            return client.get().uri("/all/title?title={title}", "Album " + random().nextInt(1_000))
+                    .accept(org.springframework.http.MediaType.APPLICATION_JSON)
+                    .retrieve()
+                    .bodyToFlux(Album.class)
+                    .then();
+        }
+    },
+    ID("id", "GET /{id}") {
+        @Override
+        Mono<?> call(WebClient client, List<String> ids) {
+            return client.get().uri("/{id}", randomId(ids))
+                    .retrieve()
+                    .bodyToMono(Album.class);
+        }
+    },
+    SAVE("save", "POST /save") {
+        @Override
+        Mono<?> call(WebClient client, List<String> ids) {
+            return client.post().uri("/save")
+                    .bodyValue(album(UUID.randomUUID().toString(), random().nextInt()))
+                    .retrieve()
+                    .bodyToMono(Album.class);
+        }
+    },
+    UPDATE("update", "PUT /update") {
+        @Override
+        Mono<?> call(WebClient client, List<String> ids) {
+            return client.put().uri("/update")
+                    .bodyValue(album(randomId(ids), random().nextInt()))
+                    .retrieve()
+                    .bodyToMono(Album.class);
+        }
+    };
+
+    private final String key;
+    private final String label;
+
+    Endpoint(String key, String label) {
+        this.key = key;
+        this.label = label;
+    }
+
+    abstract Mono<?> call(WebClient client, List<String> ids);
+
+    String label() {
+        return label;
+    }
+
+    static Endpoint fromKey(String key) {
+        return Arrays.stream(values())
+                .filter(endpoint -> endpoint.key.equals(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown endpoint: %s".formatted(key)));
+    }
+
+    static Album album(String id, int index) {
+        int number = Math.floorMod(index, 100_000);
+        return new Album(id, "Load Test Album " + number, "Load Test Artist " + number % 1_000,
+                number % 2 == 0 ? MediaType.VINYL : MediaType.CD, number % 50, null, null);
+    }
+
+    private static String randomId(List<String> ids) {
+        return ids.get(random().nextInt(ids.size()));
+    }
+
+    private static ThreadLocalRandom random() {
+        return ThreadLocalRandom.current();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.Musicalog.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_LATENCY = TimeUnit.MINUTES.toNanos(1);
+
+    private final Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_LATENCY, 3);
+    private final LongAdder errors = new LongAdder();
+
+    void recordSuccess(long latencyNanos) {
+        latencies.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_LATENCY));
+    }
+
+    void recordError() {
+        errors.increment();
+    }
+
+    String report(String label, Duration duration) {
+        long count = latencies.getTotalCount() + errors.sum();
+        return "%-16s %10d %8d %12.1f %10.2f %10.2f %10.2f %10.2f".formatted(
+                label,
+                count,
+                errors.sum(),
+                count / (duration.toNanos() / 1e9),
+                millis(latencies.getValueAtPercentile(50)),
+                millis(latencies.getValueAtPercentile(99)),
+                millis(latencies.getValueAtPercentile(99.9)),
+                millis(latencies.getMaxValue()));
+    }
+
+    static String header() {
+        return "%-16s %10s %8s %12s %10s %10s %10s %10s".formatted(
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
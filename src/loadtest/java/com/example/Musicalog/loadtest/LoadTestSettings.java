@@ -0,0 +1,41 @@
+package com.example.Musicalog.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+record LoadTestSettings(
+        String baseUrl,
+        int rate,
+        Duration warmup,
+        Duration duration,
+        int albums,
+        Map<Endpoint, Integer> mix
+) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                System.getProperty("loadtest.base-url", ""),
+                Integer.getInteger("loadtest.rate", 1000),
+                Duration.parse(System.getProperty("loadtest.warmup", "PT10S")),
+                Duration.parse(System.getProperty("loadtest.duration", "PT60S")),
+                Integer.getInteger("loadtest.albums", 10_000),
+                parseMix(System.getProperty("loadtest.mix", "all=1,title=10,id=70,save=9,update=10")));
+    }
+
+    boolean embedded() {
+        return baseUrl.isBlank();
+    }
+
+    private static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String entry : mix.split(",")) {
+            String[] weight = entry.trim().split("=");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: %s, expected <endpoint>=<weight>".formatted(entry));
+            }
+            weights.put(Endpoint.fromKey(weight[0].trim()), Integer.parseInt(weight[1].trim()));
+        }
+        return weights;
+    }
+}
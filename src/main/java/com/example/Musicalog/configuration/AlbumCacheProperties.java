@@ -0,0 +1,15 @@
+package com.example.Musicalog.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties("musicalog.cache")
+public record AlbumCacheProperties(
+        @DefaultValue("64MB") DataSize maximumWeight,
+        @DefaultValue("10m") Duration expireAfterWrite,
+        @DefaultValue("false") boolean changeStream
+) {
+}
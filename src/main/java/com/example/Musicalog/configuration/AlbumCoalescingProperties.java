@@ -0,0 +1,14 @@
+package com.example.Musicalog.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Set;
+
+@ConfigurationProperties("musicalog.coalescing")
+public record AlbumCoalescingProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue({ "findById", "findAllByTitle", "findAllByArtistName", "searchByTitlePrefix", "searchByArtistNamePrefix", "search" }) Set<String> methods,
+        @DefaultValue("1000") int maxResults
+) {
+}
@@ -0,0 +1,13 @@
+package com.example.Musicalog.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("musicalog.facets")
+public record AlbumFacetProperties(
+        @DefaultValue("20") int artistLimit,
+        @DefaultValue("5s") Duration cacheTtl
+) {
+}
@@ -0,0 +1,11 @@
+package com.example.Musicalog.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("musicalog.import")
+public record AlbumImportProperties(
+        @DefaultValue("1000") int batchSize,
+        @DefaultValue("2") int concurrency
+) {
+}
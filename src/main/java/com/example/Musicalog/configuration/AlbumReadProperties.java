@@ -0,0 +1,10 @@
+package com.example.Musicalog.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("musicalog.read")
+public record AlbumReadProperties(
+        @DefaultValue("secondaryPreferred") String listingReadPreference
+) {
+}
@@ -0,0 +1,11 @@
+package com.example.Musicalog.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties("musicalog.search-index")
+public record AlbumSearchIndexProperties(
+        @DefaultValue("256MB") DataSize maximumSize
+) {
+}
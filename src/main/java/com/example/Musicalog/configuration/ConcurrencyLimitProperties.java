@@ -0,0 +1,17 @@
+package com.example.Musicalog.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+@ConfigurationProperties("musicalog.concurrency")
+public record ConcurrencyLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1") int retryAfterSeconds,
+        Map<String, Integer> limits
+) {
+    public ConcurrencyLimitProperties {
+        limits = limits == null ? Map.of() : Map.copyOf(limits);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.Musicalog.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("musicalog.mongo")
+public record MongoClientProperties(
+        @DefaultValue("0") int minPoolSize,
+        @DefaultValue("100") int maxPoolSize,
+        @DefaultValue("2") int maxConnecting,
+        @DefaultValue("2s") Duration maxWaitTime,
+        @DefaultValue("60s") Duration maxConnectionIdleTime,
+        @DefaultValue("10s") Duration connectTimeout,
+        @DefaultValue("30s") Duration socketTimeout,
+        @DefaultValue("primary") String readPreference
+) {
+}
@@ -0,0 +1,41 @@
+package com.example.Musicalog.configuration;
+
+import com.example.Musicalog.repository.AlbumIndexes;
+import com.example.Musicalog.repository.AlbumSearchKeysCallback;
+import com.mongodb.ReadPreference;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableConfigurationProperties(MongoClientProperties.class)
+public class MongoConfig {
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoClientSettingsCustomizer(MongoClientProperties properties) {
+        return settings -> settings
+                .readPreference(ReadPreference.valueOf(properties.readPreference()))
+                .applyToConnectionPoolSettings(pool -> pool
+                        .minSize(properties.minPoolSize())
+                        .maxSize(properties.maxPoolSize())
+                        .maxConnecting(properties.maxConnecting())
+                        .maxWaitTime(properties.maxWaitTime().toMillis(), TimeUnit.MILLISECONDS)
+                        .maxConnectionIdleTime(properties.maxConnectionIdleTime().toMillis(), TimeUnit.MILLISECONDS))
+                .applyToSocketSettings(socket -> socket
+                        .connectTimeout(properties.connectTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                        .readTimeout(properties.socketTimeout().toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    @Bean
+    public AlbumSearchKeysCallback albumSearchKeysCallback() {
+        return new AlbumSearchKeysCallback();
+    }
+
+    @Bean
+    public AlbumIndexes albumIndexes(ReactiveMongoTemplate mongoTemplate) {
+        return new AlbumIndexes(mongoTemplate);
+    }
+}
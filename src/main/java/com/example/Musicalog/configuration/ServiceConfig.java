@@ -1,20 +1,167 @@
 package com.example.Musicalog.configuration;
 
 import com.example.Musicalog.controller.AlbumController;
+import com.example.Musicalog.controller.AlbumFacetController;
+import com.example.Musicalog.controller.AlbumFuzzySearchController;
+import com.example.Musicalog.controller.AlbumSnapshotController;
+import com.example.Musicalog.controller.AlbumSuggestController;
+import com.example.Musicalog.controller.ConcurrencyLimitFilter;
+import com.example.Musicalog.controller.ReadYourWritesFilter;
+import com.example.Musicalog.repository.AlbumRepositories;
 import com.example.Musicalog.repository.AlbumRepository;
+import com.example.Musicalog.repository.CausalSessions;
+import com.example.Musicalog.service.AlbumCache;
+import com.example.Musicalog.service.AlbumChangeStream;
+import com.example.Musicalog.service.AlbumExportService;
+import com.example.Musicalog.service.AlbumFacetService;
+import com.example.Musicalog.service.AlbumImportService;
+import com.example.Musicalog.service.AlbumMetrics;
+import com.example.Musicalog.service.AlbumRequestCoalescer;
+import com.example.Musicalog.service.AlbumSearchIndex;
 import com.example.Musicalog.service.AlbumService;
+import com.example.Musicalog.service.AlbumSnapshotService;
+import com.example.Musicalog.service.AlbumSuggestIndex;
+import com.example.Musicalog.service.CoverService;
+import com.example.Musicalog.service.ThumbnailService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.ReadPreference;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.gridfs.ReactiveGridFsTemplate;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Clock;
+import java.util.Set;
 
 @Configuration
+@EnableConfigurationProperties({ AlbumCacheProperties.class, AlbumImportProperties.class, AlbumExportProperties.class, ConcurrencyLimitProperties.class, AlbumReadProperties.class, AlbumSnapshotProperties.class, ThumbnailProperties.class, AlbumCoalescingProperties.class, AlbumFacetProperties.class, AlbumSearchIndexProperties.class })
 public class ServiceConfig {
     @Bean
-    public AlbumService albumService(AlbumRepository albumRepository) {
-        return new AlbumService(albumRepository);
+    public AlbumMetrics albumMetrics(MeterRegistry meterRegistry) {
+        return new AlbumMetrics(meterRegistry);
+    }
+
+    @Bean
+    public CoverService coverService(ReactiveGridFsTemplate gridFsTemplate, ReactiveMongoTemplate mongoTemplate, ApplicationEventPublisher eventPublisher, AlbumMetrics albumMetrics) {
+        return new CoverService(gridFsTemplate, mongoTemplate, eventPublisher, albumMetrics);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler thumbnailScheduler(ThumbnailProperties thumbnailProperties) {
+        return Schedulers.newBoundedElastic(thumbnailProperties.threads(), thumbnailProperties.queueCapacity(), "thumbnails");
+    }
+
+    @Bean
+    public ThumbnailService thumbnailService(ReactiveGridFsTemplate gridFsTemplate, Scheduler thumbnailScheduler, ThumbnailProperties thumbnailProperties) {
+        return new ThumbnailService(gridFsTemplate, thumbnailScheduler, thumbnailProperties.sizes());
+    }
+
+    @Bean
+    public AlbumCache albumCache(AlbumCacheProperties cacheProperties) {
+        return new AlbumCache(cacheProperties.maximumWeight().toBytes(), cacheProperties.expireAfterWrite());
+    }
+
+    @Bean
+    public AlbumRequestCoalescer albumRequestCoalescer(AlbumCoalescingProperties coalescingProperties, AlbumMetrics albumMetrics) {
+        return new AlbumRequestCoalescer(coalescingProperties.enabled() ? coalescingProperties.methods() : Set.of(), coalescingProperties.maxResults(), albumMetrics);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "musicalog.cache", name = "change-stream", havingValue = "true")
+    public AlbumChangeStream albumChangeStream(ReactiveMongoTemplate mongoTemplate, ApplicationEventPublisher eventPublisher) {
+        return new AlbumChangeStream(mongoTemplate, eventPublisher);
+    }
+
+    @Bean(autowireCandidate = false)
+    public AlbumRepository albumListingRepository(ReactiveMongoTemplate mongoTemplate, AlbumReadProperties readProperties) {
+        return AlbumRepositories.withReadPreference(mongoTemplate, ReadPreference.valueOf(readProperties.listingReadPreference()));
+    }
+
+    @Bean
+    public AlbumService albumService(AlbumRepository albumRepository, ReactiveMongoTemplate mongoTemplate, AlbumReadProperties readProperties,
+                                     CoverService coverService, AlbumCache albumCache, AlbumRequestCoalescer albumRequestCoalescer,
+                                     ApplicationEventPublisher eventPublisher, AlbumMetrics albumMetrics) {
+        return new AlbumService(albumRepository, albumListingRepository(mongoTemplate, readProperties), coverService, albumCache, albumRequestCoalescer,
+                eventPublisher, albumMetrics);
+    }
+
+    @Bean
+    public AlbumImportService albumImportService(AlbumRepository albumRepository, CoverService coverService, ObjectMapper objectMapper,
+                                                 ApplicationEventPublisher eventPublisher, AlbumImportProperties importProperties) {
+        return new AlbumImportService(albumRepository, coverService, objectMapper, eventPublisher, importProperties.batchSize(), importProperties.concurrency());
+    }
+
+    @Bean
+    public AlbumExportService albumExportService(ReactiveMongoTemplate mongoTemplate, AlbumReadProperties readProperties, AlbumExportProperties exportProperties) {
+        return new AlbumExportService(albumListingRepository(mongoTemplate, readProperties), exportProperties.cursorBatchSize());
+    }
+
+    @Bean
+    public AlbumFacetService albumFacetService(ReactiveMongoTemplate mongoTemplate, AlbumReadProperties readProperties, AlbumMetrics albumMetrics,
+                                               AlbumFacetProperties facetProperties) {
+        return new AlbumFacetService(albumListingRepository(mongoTemplate, readProperties), albumMetrics, facetProperties.artistLimit(), facetProperties.cacheTtl());
+    }
+
+    @Bean
+    public AlbumFacetController albumFacetController(AlbumFacetService albumFacetService) {
+        return new AlbumFacetController(albumFacetService);
+    }
+
+    @Bean
+    public AlbumSearchIndex albumSearchIndex(AlbumRepository albumRepository, AlbumSearchIndexProperties searchIndexProperties) {
+        return new AlbumSearchIndex(albumRepository, searchIndexProperties.maximumSize().toBytes());
+    }
+
+    @Bean
+    public AlbumFuzzySearchController albumFuzzySearchController(AlbumSearchIndex albumSearchIndex) {
+        return new AlbumFuzzySearchController(albumSearchIndex);
+    }
+
+    @Bean
+    public AlbumSuggestIndex albumSuggestIndex(AlbumRepository albumRepository) {
+        return new AlbumSuggestIndex(albumRepository);
+    }
+
+    @Bean
+    public AlbumSuggestController albumSuggestController(AlbumSuggestIndex albumSuggestIndex) {
+        return new AlbumSuggestController(albumSuggestIndex);
+    }
+
+    @Bean
+    public AlbumSnapshotService albumSnapshotService(AlbumRepository albumRepository, ObjectMapper objectMapper, AlbumSnapshotProperties snapshotProperties) {
+        return new AlbumSnapshotService(albumRepository, objectMapper, snapshotProperties.enabled());
+    }
+
+    @Bean
+    public AlbumSnapshotController albumSnapshotController(AlbumSnapshotService albumSnapshotService) {
+        return new AlbumSnapshotController(albumSnapshotService);
+    }
+
+    @Bean
+    public AlbumController albumController(AlbumService albumService, CoverService coverService, AlbumImportService albumImportService,
+                                           AlbumExportService albumExportService, ThumbnailService thumbnailService) {
+        return new AlbumController(albumService, coverService, albumImportService, albumExportService, thumbnailService);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "musicalog.concurrency", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public ConcurrencyLimitFilter concurrencyLimitFilter(ConcurrencyLimitProperties concurrencyLimitProperties) {
+        return new ConcurrencyLimitFilter(concurrencyLimitProperties.limits(), concurrencyLimitProperties.retryAfterSeconds());
+    }
+
+    @Bean
+    public CausalSessions causalSessions(ReactiveMongoTemplate mongoTemplate) {
+        return new CausalSessions(mongoTemplate.getMongoDatabaseFactory());
     }
 
     @Bean
-    public AlbumController albumController(AlbumService albumService) {
-        return new AlbumController(albumService);
+    public ReadYourWritesFilter readYourWritesFilter(CausalSessions causalSessions) {
+        return new ReadYourWritesFilter(causalSessions, Clock.systemUTC());
     }
 }
@@ -0,0 +1,36 @@
+package com.example.Musicalog.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+public class StreamingCborEncoder extends Jackson2CborEncoder {
+
+    private static final byte START_INDEFINITE_ARRAY = (byte) 0x9F;
+    private static final byte BREAK = (byte) 0xFF;
+
+    public StreamingCborEncoder(ObjectMapper mapper) {
+        super(mapper, MediaType.APPLICATION_CBOR);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory, ResolvableType elementType,
+                                   MimeType mimeType, Map<String, Object> hints) {
+        if (inputStream instanceof Mono<?> mono) {
+            return mono.map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)).flux();
+        }
+        return Flux.concat(
+                Mono.fromCallable(() -> bufferFactory.wrap(new byte[]{START_INDEFINITE_ARRAY})),
+                Flux.from(inputStream).map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)),
+                Mono.fromCallable(() -> bufferFactory.wrap(new byte[]{BREAK})));
+    }
+}
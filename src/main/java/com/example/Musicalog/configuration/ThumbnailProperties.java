@@ -0,0 +1,14 @@
+package com.example.Musicalog.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+@ConfigurationProperties("musicalog.thumbnails")
+public record ThumbnailProperties(
+        @DefaultValue({ "64", "256" }) List<Integer> sizes,
+        @DefaultValue("2") int threads,
+        @DefaultValue("100") int queueCapacity
+) {
+}
@@ -1,22 +1,56 @@
 package com.example.Musicalog.controller;
 
 import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.AlbumBatch;
+import com.example.Musicalog.domain.AlbumImportResult;
+import com.example.Musicalog.domain.AlbumPage;
+import com.example.Musicalog.domain.AlbumPatch;
+import com.example.Musicalog.domain.AlbumSummary;
+import com.example.Musicalog.domain.Cover;
+import com.example.Musicalog.domain.StockLevel;
+import com.example.Musicalog.service.AlbumExportService;
+import com.example.Musicalog.service.AlbumImportService;
 import com.example.Musicalog.service.AlbumService;
+import com.example.Musicalog.service.CoverService;
+import com.example.Musicalog.service.ThumbnailService;
+import com.example.Musicalog.service.exception.ConflictException;
+import com.example.Musicalog.service.exception.InsufficientStockException;
 import com.example.Musicalog.service.exception.NotFoundException;
+import com.example.Musicalog.service.exception.PreconditionFailedException;
 import com.example.Musicalog.service.exception.ServiceException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/album")
 public class AlbumController {
 
+    private static final String DEFAULT_PAGE_SIZE = "50";
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
     private final AlbumService service;
+    private final CoverService coverService;
+    private final AlbumImportService importService;
+    private final AlbumExportService exportService;
+    private final ThumbnailService thumbnailService;
 
-    public AlbumController(AlbumService albumService) {
+    public AlbumController(AlbumService albumService, CoverService coverService, AlbumImportService albumImportService,
+                           AlbumExportService albumExportService, ThumbnailService thumbnailService) {
         this.service = albumService;
+        this.coverService = coverService;
+        this.importService = albumImportService;
+        this.exportService = albumExportService;
+        this.thumbnailService = thumbnailService;
     }
 
     @GetMapping("/all")
@@ -34,10 +68,88 @@ public class AlbumController {
         return service.findAllByArtistName(artistName);
     }
 
+    @GetMapping(value = "/all", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<Album> streamAllAlbums() {
+        return exportService.streamAll();
+    }
+
+    @GetMapping(value = "/all/title", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<Album> streamAllAlbumsByTitle(@RequestParam String title) {
+        return exportService.streamAllByTitle(title);
+    }
+
+    @GetMapping(value = "/all/artist", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<Album> streamAllAlbumsByArtistName(@RequestParam String artistName) {
+        return exportService.streamAllByArtistName(artistName);
+    }
+
+    @GetMapping(value = "/all", params = "view=summary")
+    public Flux<AlbumSummary> getAllAlbumSummaries() {
+        return service.findAllSummaries();
+    }
+
+    @GetMapping(value = "/all/title", params = "view=summary")
+    public Flux<AlbumSummary> getAllAlbumSummariesByTitle(@RequestParam String title) {
+        return service.findAllSummariesByTitle(title);
+    }
+
+    @GetMapping(value = "/all/artist", params = "view=summary")
+    public Flux<AlbumSummary> getAllAlbumSummariesByArtistName(@RequestParam String artistName) {
+        return service.findAllSummariesByArtistName(artistName);
+    }
+
+    @GetMapping("/batch")
+    public Mono<ResponseEntity<AlbumBatch<Album>>> getAlbumsById(@RequestParam List<String> ids) {
+        return badRequestOnInvalid(service.findAllById(ids));
+    }
+
+    @GetMapping(value = "/batch", params = "view=summary")
+    public Mono<ResponseEntity<AlbumBatch<AlbumSummary>>> getAlbumSummariesById(@RequestParam List<String> ids) {
+        return badRequestOnInvalid(service.findAllSummariesById(ids));
+    }
+
+    @GetMapping("/search")
+    public Flux<Album> searchAlbums(@RequestParam String text) {
+        return service.search(text);
+    }
+
+    @GetMapping("/search/title")
+    public Flux<Album> searchAlbumsByTitlePrefix(@RequestParam String prefix) {
+        return service.searchByTitlePrefix(prefix);
+    }
+
+    @GetMapping("/search/artist")
+    public Flux<Album> searchAlbumsByArtistNamePrefix(@RequestParam String prefix) {
+        return service.searchByArtistNamePrefix(prefix);
+    }
+
+    @GetMapping("/page")
+    public Mono<ResponseEntity<AlbumPage>> getAlbumPage(@RequestParam(required = false) String after,
+                                                        @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        return badRequestOnInvalid(service.findPage(after, limit));
+    }
+
+    @GetMapping("/page/title")
+    public Mono<ResponseEntity<AlbumPage>> getAlbumPageByTitle(@RequestParam String title,
+                                                               @RequestParam(required = false) String after,
+                                                               @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        return badRequestOnInvalid(service.findPageByTitle(title, after, limit));
+    }
+
+    @GetMapping("/page/artist")
+    public Mono<ResponseEntity<AlbumPage>> getAlbumPageByArtistName(@RequestParam String artistName,
+                                                                    @RequestParam(required = false) String after,
+                                                                    @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        return badRequestOnInvalid(service.findPageByArtistName(artistName, after, limit));
+    }
+
     @GetMapping("/{id}")
-    public Mono<ResponseEntity<Album>> getAlbumById(@PathVariable String id) {
+    public Mono<ResponseEntity<Album>> getAlbumById(@PathVariable String id,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         return service.findById(id)
-                .map(ResponseEntity::ok)
+                .map(album -> AlbumETags.matches(ifNoneMatch, album)
+                        ? ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(AlbumETags.of(album)).<Album>build()
+                        : versioned(album))
                 .onErrorResume(NotFoundException.class, e ->
                         Mono.just(ResponseEntity.notFound().build()));
     }
@@ -45,21 +157,125 @@ public class AlbumController {
     @PostMapping("/save")
     public Mono<ResponseEntity<Album>> saveAlbum(@RequestBody Album album) {
         return service.save(album)
-                .map(ResponseEntity::ok)
+                .map(this::versioned)
+                .onErrorResume(ConflictException.class, e ->
+                        Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()))
+                .onErrorResume(NotFoundException.class, e ->
+                        Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorResume(IllegalArgumentException.class, e ->
+                        Mono.just(ResponseEntity.badRequest().build()))
                 .onErrorResume(ServiceException.class, e ->
                         Mono.just(ResponseEntity.internalServerError().build()));
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<AlbumImportResult> importAlbums(@RequestBody Flux<String> lines) {
+        return importService.importLines(lines);
+    }
+
     @PutMapping("/update")
-    public Mono<ResponseEntity<Album>> updateAlbum(@RequestBody Album album) {
-        return service.update(album)
+    public Mono<ResponseEntity<Album>> updateAlbum(@RequestBody Album album,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return service.update(album, AlbumETags.expectedVersions(ifMatch))
+                .map(this::versioned)
+                .onErrorResume(NotFoundException.class, e ->
+                        Mono.just(ResponseEntity.notFound().build()))
+                .onErrorResume(PreconditionFailedException.class, e ->
+                        Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build()));
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<Album>> patchAlbum(@PathVariable String id, @RequestBody AlbumPatch patch,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return service.patch(id, patch, AlbumETags.expectedVersions(ifMatch))
+                .map(this::versioned)
+                .onErrorResume(NotFoundException.class, e ->
+                        Mono.just(ResponseEntity.notFound().build()))
+                .onErrorResume(PreconditionFailedException.class, e ->
+                        Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build()));
+    }
+
+    @PostMapping("/{id}/stock")
+    public Mono<ResponseEntity<StockLevel>> adjustStock(@PathVariable String id, @RequestParam int delta) {
+        return service.adjustStock(id, delta)
                 .map(ResponseEntity::ok)
                 .onErrorResume(NotFoundException.class, e ->
-                        Mono.just(ResponseEntity.notFound().build()));
+                        Mono.just(ResponseEntity.notFound().build()))
+                .onErrorResume(InsufficientStockException.class, e ->
+                        Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()))
+                .onErrorResume(ConflictException.class, e ->
+                        Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()));
     }
 
     @DeleteMapping("/{id}")
-    public Mono<Void> removeAlbum(@PathVariable String id) {
-        return service.remove(id);
+    public Mono<ResponseEntity<Void>> removeAlbum(@PathVariable String id,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return service.remove(id, AlbumETags.expectedVersions(ifMatch))
+                .then(Mono.just(ResponseEntity.ok().<Void>build()))
+                .onErrorResume(NotFoundException.class, e ->
+                        Mono.just(ResponseEntity.notFound().build()))
+                .onErrorResume(PreconditionFailedException.class, e ->
+                        Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build()));
+    }
+
+    @PutMapping(value = "/{id}/cover", consumes = "image/*")
+    public Mono<ResponseEntity<Cover>> uploadCover(@PathVariable String id,
+                                                   @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                   @RequestBody Flux<DataBuffer> content) {
+        return coverService.store(id, content, contentType)
+                .map(ResponseEntity::ok)
+                .onErrorResume(NotFoundException.class, e ->
+                        Mono.just(ResponseEntity.notFound().build()));
+    }
+
+    @GetMapping("/{id}/cover")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getCover(@PathVariable String id) {
+        return coverService.load(id)
+                .map(coverContent -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(coverContent.cover().contentType()))
+                        .contentLength(coverContent.cover().size())
+                        .eTag(coverContent.cover().hash())
+                        .body(coverContent.content()))
+                .onErrorResume(NotFoundException.class, e ->
+                        Mono.just(ResponseEntity.notFound().build()));
+    }
+
+    @GetMapping("/cover/{hash}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getCoverByHash(@PathVariable String hash) {
+        return coverService.loadByHash(hash)
+                .map(coverContent -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(coverContent.cover().contentType()))
+                        .contentLength(coverContent.cover().size())
+                        .cacheControl(IMMUTABLE)
+                        .eTag(hash)
+                        .body(coverContent.content()))
+                .onErrorResume(NotFoundException.class, e ->
+                        Mono.just(ResponseEntity.notFound().build()));
+    }
+
+    @GetMapping("/cover/{hash}/thumbnail/{size}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getCoverThumbnail(@PathVariable String hash, @PathVariable int size) {
+        return thumbnailService.load(hash, size)
+                .map(thumbnail -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(thumbnail.cover().contentType()))
+                        .contentLength(thumbnail.cover().size())
+                        .cacheControl(IMMUTABLE)
+                        .eTag("%s-%d".formatted(hash, size))
+                        .body(thumbnail.content()))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<Album> versioned(Album album) {
+        String eTag = AlbumETags.of(album);
+        return eTag == null
+                ? ResponseEntity.ok(album)
+                : ResponseEntity.ok().eTag(eTag).body(album);
+    }
+
+    private static <T> Mono<ResponseEntity<T>> badRequestOnInvalid(Mono<T> result) {
+        return result
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e ->
+                        Mono.just(ResponseEntity.badRequest().build()));
     }
 }
@@ -0,0 +1,50 @@
+package com.example.Musicalog.controller;
+
+import com.example.Musicalog.domain.Album;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+final class AlbumETags {
+
+    private static final Pattern STRONG_VERSION = Pattern.compile("\"(0|[1-9][0-9]{0,17})\"");
+
+    private AlbumETags() {
+    }
+
+    static String of(Album album) {
+        return album.version() == null ? null : "\"%d\"".formatted(album.version());
+    }
+
+    static boolean matches(String ifNoneMatch, Album album) {
+        String eTag = of(album);
+        if (ifNoneMatch == null || eTag == null) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(candidate -> candidate.startsWith("W/") ? candidate.substring(2) : candidate)
+                .anyMatch(candidate -> candidate.equals("*") || candidate.equals(eTag));
+    }
+
+    static Set<Long> expectedVersions(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        List<String> candidates = Arrays.stream(ifMatch.split(","))
+                .map(String::trim)
+                .toList();
+        if (candidates.contains("*")) {
+            return null;
+        }
+        return candidates.stream()
+                .map(STRONG_VERSION::matcher)
+                .filter(Matcher::matches)
+                .map(version -> Long.valueOf(version.group(1)))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.Musicalog.controller;
+
+import com.example.Musicalog.domain.AlbumFacets;
+import com.example.Musicalog.service.AlbumFacetService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/album")
+public class AlbumFacetController {
+
+    private final AlbumFacetService facetService;
+
+    public AlbumFacetController(AlbumFacetService albumFacetService) {
+        this.facetService = albumFacetService;
+    }
+
+    @GetMapping("/facets")
+    public Mono<AlbumFacets> getFacets(@RequestParam(required = false) String title,
+                                       @RequestParam(required = false) String artistName) {
+        return facetService.facets(title, artistName);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.Musicalog.controller;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.service.AlbumSearchIndex;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+@RestController
+@RequestMapping("/api/album")
+public class AlbumFuzzySearchController {
+
+    private static final int MAX_RESULTS = 100;
+
+    private final AlbumSearchIndex searchIndex;
+
+    public AlbumFuzzySearchController(AlbumSearchIndex albumSearchIndex) {
+        this.searchIndex = albumSearchIndex;
+    }
+
+    @GetMapping("/search/fuzzy")
+    public Flux<Album> searchAlbumsFuzzy(@RequestParam String text,
+                                         @RequestParam(defaultValue = "20") int limit) {
+        return searchIndex.search(text, Math.max(1, Math.min(limit, MAX_RESULTS)));
+    }
+}
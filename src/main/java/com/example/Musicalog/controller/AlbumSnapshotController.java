@@ -0,0 +1,58 @@
+package com.example.Musicalog.controller;
+
+import com.example.Musicalog.service.AlbumSnapshot;
+import com.example.Musicalog.service.AlbumSnapshotService;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.util.zip.GZIPInputStream;
+
+@RestController
+@RequestMapping("/api/album")
+public class AlbumSnapshotController {
+
+    private static final String GZIP = "gzip";
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final AlbumSnapshotService snapshotService;
+
+    public AlbumSnapshotController(AlbumSnapshotService albumSnapshotService) {
+        this.snapshotService = albumSnapshotService;
+    }
+
+    @GetMapping("/snapshot")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getSnapshot(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                              ServerWebExchange exchange) {
+        return snapshotService.get()
+                .map(snapshot -> exchange.checkNotModified(snapshot.eTag())
+                        ? ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.eTag()).<Flux<DataBuffer>>build()
+                        : body(snapshot, acceptEncoding != null && acceptEncoding.contains(GZIP), exchange.getResponse().bufferFactory()))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    private static ResponseEntity<Flux<DataBuffer>> body(AlbumSnapshot snapshot, boolean gzip, DataBufferFactory bufferFactory) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.eTag())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(Flux.just(bufferFactory.wrap(snapshot.gzippedJson())));
+        }
+        return response.body(DataBufferUtils.readInputStream(() -> new GZIPInputStream(new ByteArrayInputStream(snapshot.gzippedJson())), bufferFactory, CHUNK_SIZE)
+                .subscribeOn(Schedulers.boundedElastic()));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.Musicalog.controller;
+
+import com.example.Musicalog.service.AlbumSuggestIndex;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/album/suggest")
+public class AlbumSuggestController {
+
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private final AlbumSuggestIndex suggestIndex;
+
+    public AlbumSuggestController(AlbumSuggestIndex albumSuggestIndex) {
+        this.suggestIndex = albumSuggestIndex;
+    }
+
+    @GetMapping("/title")
+    public Mono<List<String>> suggestTitles(@RequestParam String prefix,
+                                            @RequestParam(defaultValue = "10") int limit) {
+        return suggestIndex.suggestTitles(prefix, clamp(limit));
+    }
+
+    @GetMapping("/artist")
+    public Mono<List<String>> suggestArtistNames(@RequestParam String prefix,
+                                                 @RequestParam(defaultValue = "10") int limit) {
+        return suggestIndex.suggestArtistNames(prefix, clamp(limit));
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+    }
+}
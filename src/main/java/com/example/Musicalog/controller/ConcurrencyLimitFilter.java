@@ -0,0 +1,79 @@
+package com.example.Musicalog.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrencyLimitFilter implements WebFilter {
+
+    private final List<Limit> limits;
+    private final String retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(Map<String, Integer> limits, int retryAfterSeconds) {
+        this.limits = limits.entrySet().stream()
+                .map(limit -> new Limit(PathPatternParser.defaultInstance.parse(limit.getKey()), limit.getValue()))
+                .sorted(Comparator.comparing(Limit::pattern, PathPattern.SPECIFICITY_COMPARATOR))
+                .toList();
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+        for (Limit limit : limits) {
+            if (limit.pattern().matches(path)) {
+                return limited(limit, exchange, chain);
+            }
+        }
+        return chain.filter(exchange);
+    }
+
+    int inFlight(String pattern) {
+        return limits.stream()
+                .filter(limit -> limit.pattern().getPatternString().equals(pattern))
+                .mapToInt(limit -> limit.inFlight().get())
+                .sum();
+    }
+
+    private Mono<Void> limited(Limit limit, ServerWebExchange exchange, WebFilterChain chain) {
+        return Mono.defer(() -> {
+            if (!limit.tryAcquire()) {
+                exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+                return exchange.getResponse().setComplete();
+            }
+            return chain.filter(exchange)
+                    .doFinally(signal -> limit.inFlight().decrementAndGet());
+        });
+    }
+
+    private record Limit(PathPattern pattern, int maxConcurrent, AtomicInteger inFlight) {
+
+        Limit(PathPattern pattern, int maxConcurrent) {
+            this(pattern, maxConcurrent, new AtomicInteger());
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= maxConcurrent) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.Musicalog.controller;
+
+import com.example.Musicalog.repository.CausalSessions;
+import org.bson.BsonTimestamp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.util.Set;
+
+public class ReadYourWritesFilter implements WebFilter {
+
+    public static final String OPERATION_TIME_HEADER = "X-Musicalog-Operation-Time";
+
+    private static final Logger log = LoggerFactory.getLogger(ReadYourWritesFilter.class);
+    private static final Set<HttpMethod> WRITE_METHODS = Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+
+    private final CausalSessions sessions;
+    private final Clock clock;
+
+    public ReadYourWritesFilter(CausalSessions sessions, Clock clock) {
+        this.sessions = sessions;
+        this.clock = clock;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (WRITE_METHODS.contains(exchange.getRequest().getMethod())) {
+            exchange.getResponse().beforeCommit(() -> {
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                if (status != null && !status.is2xxSuccessful()) {
+                    return Mono.empty();
+                }
+                return sessions.operationTime()
+                        .doOnNext(operationTime -> exchange.getResponse().getHeaders().set(OPERATION_TIME_HEADER, String.valueOf(operationTime.getValue())))
+                        .onErrorResume(error -> {
+                            log.warn("Could not read the operation time after a write", error);
+                            return Mono.empty();
+                        })
+                        .then();
+            });
+        }
+        BsonTimestamp operationTime = operationTime(exchange.getRequest().getHeaders().getFirst(OPERATION_TIME_HEADER));
+        return operationTime == null
+                ? chain.filter(exchange)
+                : sessions.readAfter(operationTime, chain.filter(exchange));
+    }
+
+    /**
+     * Parses an operation time handed out by an earlier write. One from the future is clamped to now, so it cannot make
+     * reads wait on a time the cluster has not reached.
+     */
+    private BsonTimestamp operationTime(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            BsonTimestamp operationTime = new BsonTimestamp(Long.parseLong(value.trim()));
+            long now = clock.instant().getEpochSecond();
+            return Integer.toUnsignedLong(operationTime.getTime()) > now ? new BsonTimestamp((int) now, 0) : operationTime;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.Musicalog.domain;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document
@@ -10,6 +11,7 @@ public record Album(
         String artistName,
         MediaType type,
         Integer stock,
-        byte[] cover
+        Cover cover,
+        @Version Long version
 ) {
 }
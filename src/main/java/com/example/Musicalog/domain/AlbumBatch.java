@@ -0,0 +1,9 @@
+package com.example.Musicalog.domain;
+
+import java.util.List;
+
+public record AlbumBatch<T>(
+        List<T> albums,
+        List<String> notFound
+) {
+}
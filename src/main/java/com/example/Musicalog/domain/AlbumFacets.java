@@ -0,0 +1,10 @@
+package com.example.Musicalog.domain;
+
+import java.util.List;
+
+public record AlbumFacets(
+        List<FacetCount> types,
+        List<FacetCount> artists,
+        List<FacetCount> availability
+) {
+}
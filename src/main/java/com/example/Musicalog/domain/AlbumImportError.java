@@ -0,0 +1,8 @@
+package com.example.Musicalog.domain;
+
+public record AlbumImportError(
+        int index,
+        String albumId,
+        String message
+) {
+}
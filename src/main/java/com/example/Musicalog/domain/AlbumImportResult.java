@@ -0,0 +1,12 @@
+package com.example.Musicalog.domain;
+
+import java.util.List;
+
+public record AlbumImportResult(
+        long batch,
+        int received,
+        int inserted,
+        int failed,
+        List<AlbumImportError> errors
+) {
+}
@@ -0,0 +1,9 @@
+package com.example.Musicalog.domain;
+
+public record AlbumPatch(
+        String title,
+        String artistName,
+        MediaType type,
+        Integer stock
+) {
+}
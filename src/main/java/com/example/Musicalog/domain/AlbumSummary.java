@@ -0,0 +1,10 @@
+package com.example.Musicalog.domain;
+
+public record AlbumSummary(
+        String id,
+        String title,
+        String artistName,
+        MediaType type,
+        Integer stock
+) {
+}
@@ -0,0 +1,9 @@
+package com.example.Musicalog.domain;
+
+public record Cover(
+        String reference,
+        String contentType,
+        Long size,
+        String hash
+) {
+}
@@ -0,0 +1,7 @@
+package com.example.Musicalog.domain;
+
+public record StockLevel(
+        String albumId,
+        Integer stock
+) {
+}
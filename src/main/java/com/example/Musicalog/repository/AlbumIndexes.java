@@ -0,0 +1,100 @@
+package com.example.Musicalog.repository;
+
+import com.example.Musicalog.domain.Album;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static com.example.Musicalog.repository.AlbumSearchKeys.ARTIST_NAME_KEY;
+import static com.example.Musicalog.repository.AlbumSearchKeys.TITLE_KEY;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+public class AlbumIndexes {
+
+    public static final String TEXT_INDEX = "album_text";
+    public static final String COVER_HASH_INDEX = "cover_hash";
+    public static final String FACET_INDEX = "album_facets";
+
+    static final List<String> FACET_FIELDS = List.of("type", "artistName", "stock");
+
+    private static final String COVER_FILES = "fs.files";
+    private static final String COVER_HASH = "metadata.hash";
+
+    private static final Logger log = LoggerFactory.getLogger(AlbumIndexes.class);
+    private static final int BACKFILL_CONCURRENCY = 16;
+
+    private final ReactiveMongoTemplate template;
+
+    public AlbumIndexes(ReactiveMongoTemplate template) {
+        this.template = template;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        ensureIndexes()
+                .then(backfillVersions())
+                .then(backfillSearchKeys())
+                .subscribe(
+                        backfilled -> log.info("Album search indexes ready, backfilled search keys of {} albums", backfilled),
+                        error -> log.warn("Could not initialize album search indexes", error));
+    }
+
+    public Mono<Void> ensureIndexes() {
+        ReactiveIndexOperations indexOperations = template.indexOps(Album.class);
+        return Flux.concat(
+                        indexOperations.ensureIndex(new Index().on(TITLE_KEY, Sort.Direction.ASC).named(TITLE_KEY)),
+                        indexOperations.ensureIndex(new Index().on(ARTIST_NAME_KEY, Sort.Direction.ASC).named(ARTIST_NAME_KEY)),
+                        indexOperations.ensureIndex(facetIndex()),
+                        indexOperations.ensureIndex(TextIndexDefinition.builder()
+                                .onField("title")
+                                .onField("artistName")
+                                .named(TEXT_INDEX)
+                                .build()),
+                        template.indexOps(COVER_FILES).ensureIndex(new Index().on(COVER_HASH, Sort.Direction.ASC)
+                                .unique()
+                                .partial(PartialIndexFilter.of(where(COVER_HASH).exists(true)))
+                                .named(COVER_HASH_INDEX)))
+                .then();
+    }
+
+    public Mono<Long> backfillVersions() {
+        return template.updateMulti(query(where("version").exists(false)), new Update().set("version", 0L), Album.class)
+                .map(UpdateResult::getModifiedCount);
+    }
+
+    public Mono<Long> backfillSearchKeys() {
+        String collection = template.getCollectionName(Album.class);
+        Query missingKeys = query(where(TITLE_KEY).exists(false));
+        missingKeys.fields().include("title").include("artistName");
+        return template.find(missingKeys, Document.class, collection)
+                .flatMap(document -> template.updateFirst(
+                        query(where("_id").is(document.get("_id"))),
+                        new Update()
+                                .set(TITLE_KEY, AlbumSearchKeys.normalize(document.getString("title")))
+                                .set(ARTIST_NAME_KEY, AlbumSearchKeys.normalize(document.getString("artistName"))),
+                        collection), BACKFILL_CONCURRENCY)
+                .count();
+    }
+
+    private static Index facetIndex() {
+        Index index = new Index().named(FACET_INDEX);
+        FACET_FIELDS.forEach(field -> index.on(field, Sort.Direction.ASC));
+        return index;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.Musicalog.repository;
+
+import com.mongodb.ReadPreference;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+public final class AlbumRepositories {
+
+    private AlbumRepositories() {
+    }
+
+    public static AlbumRepository withReadPreference(ReactiveMongoTemplate template, ReadPreference readPreference) {
+        ReactiveMongoTemplate readTemplate = new ReactiveMongoTemplate(CausalSessions.bindable(template.getMongoDatabaseFactory()), template.getConverter());
+        readTemplate.setReadPreference(readPreference);
+        return new ReactiveMongoRepositoryFactory(readTemplate)
+                .getRepository(AlbumRepository.class, RepositoryFragments.just(new AlbumRepositoryCustomImpl(readTemplate)));
+    }
+}
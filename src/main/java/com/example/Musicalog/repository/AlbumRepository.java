@@ -1,12 +1,40 @@
 package com.example.Musicalog.repository;
 
 import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.AlbumSummary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import reactor.core.publisher.Flux;
 
-public interface AlbumRepository extends ReactiveMongoRepository<Album, String> {
+import java.util.Collection;
+
+public interface AlbumRepository extends ReactiveMongoRepository<Album, String>, AlbumRepositoryCustom {
 
     Flux<Album> findByTitleContainingIgnoreCase(String title);
 
     Flux<Album> findByArtistNameContainingIgnoreCase(String title);
+
+    Flux<AlbumSummary> findAllProjectedBy();
+
+    Flux<AlbumSummary> findSummariesByTitleContainingIgnoreCase(String title);
+
+    Flux<AlbumSummary> findSummariesByArtistNameContainingIgnoreCase(String artistName);
+
+    Flux<AlbumSummary> findSummariesByIdIn(Collection<String> ids);
+
+    Flux<Album> findAllByOrderByIdAsc(Limit limit);
+
+    Flux<Album> findByTitleContainingIgnoreCaseOrderByIdAsc(String title, Limit limit);
+
+    Flux<Album> findByArtistNameContainingIgnoreCaseOrderByIdAsc(String artistName, Limit limit);
+
+    @Query(value = "{ 'titleKey': { $regex: ?0 } }", sort = "{ 'titleKey': 1 }")
+    Flux<Album> findByTitleKeyMatching(String pattern);
+
+    @Query(value = "{ 'artistNameKey': { $regex: ?0 } }", sort = "{ 'artistNameKey': 1 }")
+    Flux<Album> findByArtistNameKeyMatching(String pattern);
+
+    Flux<Album> findAllBy(TextCriteria criteria);
 }
@@ -0,0 +1,39 @@
+package com.example.Musicalog.repository;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.AlbumFacets;
+import com.example.Musicalog.domain.AlbumImportError;
+import com.example.Musicalog.domain.AlbumPatch;
+import org.springframework.data.domain.Limit;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+
+public interface AlbumRepositoryCustom {
+
+    Mono<List<AlbumImportError>> insertAll(List<Album> albums);
+
+    Mono<Album> adjustStock(String id, int delta);
+
+    Mono<Album> patch(String id, AlbumPatch patch, Set<Long> expectedVersions);
+
+    Mono<Album> updateUnversioned(Album album);
+
+    Mono<Album> findAndRemove(String id, Set<Long> expectedVersions);
+
+    Mono<AlbumFacets> facets(String titlePrefix, String artistNamePrefix, int artistLimit);
+
+    Flux<Album> streamAll(int batchSize);
+
+    Flux<Album> streamByTitleContainingIgnoreCase(String title, int batchSize);
+
+    Flux<Album> streamByArtistNameContainingIgnoreCase(String artistName, int batchSize);
+
+    Flux<Album> findAfterOrderByIdAsc(String afterId, Limit limit);
+
+    Flux<Album> findByTitleContainingIgnoreCaseAfterOrderByIdAsc(String title, String afterId, Limit limit);
+
+    Flux<Album> findByArtistNameContainingIgnoreCaseAfterOrderByIdAsc(String artistName, String afterId, Limit limit);
+}
@@ -0,0 +1,242 @@
+package com.example.Musicalog.repository;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.AlbumFacets;
+import com.example.Musicalog.domain.AlbumImportError;
+import com.example.Musicalog.domain.AlbumPatch;
+import com.example.Musicalog.domain.FacetCount;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static com.example.Musicalog.repository.AlbumSearchKeys.ARTIST_NAME_KEY;
+import static com.example.Musicalog.repository.AlbumSearchKeys.TITLE_KEY;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+public class AlbumRepositoryCustomImpl implements AlbumRepositoryCustom {
+
+    private static final String VERSION = "version";
+    private static final String COUNT = "count";
+    private static final String AVAILABILITY = "availability";
+    private static final String IN_STOCK = "IN_STOCK";
+    private static final String OUT_OF_STOCK = "OUT_OF_STOCK";
+
+    private final ReactiveMongoTemplate template;
+
+    public AlbumRepositoryCustomImpl(ReactiveMongoTemplate template) {
+        this.template = template;
+    }
+
+    @Override
+    public Mono<List<AlbumImportError>> insertAll(List<Album> albums) {
+        List<Document> documents = albums.stream()
+                .map(this::toDocument)
+                .toList();
+        return template.bulkOps(BulkMode.UNORDERED, collection())
+                .insert(documents)
+                .execute()
+                .map(result -> List.<AlbumImportError>of())
+                .onErrorResume(BulkOperationException.class, e -> Mono.just(importErrors(albums, e.getErrors())))
+                .onErrorResume(MongoBulkWriteException.class, e -> Mono.just(importErrors(albums, e.getWriteErrors())));
+    }
+
+    @Override
+    public Mono<Album> adjustStock(String id, int delta) {
+        Criteria criteria = where("_id").is(id);
+        if (delta < 0) {
+            criteria = criteria.and("stock").gte(-(long) delta);
+        } else if (delta > 0) {
+            criteria = criteria.and("stock").not().gt(Integer.MAX_VALUE - delta);
+        }
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("stock").toValue(ArithmeticOperators.valueOf(ConditionalOperators.ifNull("stock").then(0)).add(delta))
+                .set(VERSION).toValue(ArithmeticOperators.valueOf(ConditionalOperators.ifNull(VERSION).then(0L)).add(1));
+        return template.findAndModify(query(criteria), update, FindAndModifyOptions.options().returnNew(true), Album.class);
+    }
+
+    @Override
+    public Mono<Album> patch(String id, AlbumPatch patch, Set<Long> expectedVersions) {
+        Update update = new Update();
+        if (patch.title() != null) {
+            update.set("title", patch.title()).set(TITLE_KEY, AlbumSearchKeys.normalize(patch.title()));
+        }
+        if (patch.artistName() != null) {
+            update.set("artistName", patch.artistName()).set(ARTIST_NAME_KEY, AlbumSearchKeys.normalize(patch.artistName()));
+        }
+        if (patch.type() != null) {
+            update.set("type", patch.type());
+        }
+        if (patch.stock() != null) {
+            update.set("stock", patch.stock());
+        }
+        Criteria criteria = where("_id").is(id);
+        if (expectedVersions != null) {
+            criteria = criteria.and(VERSION).in(expectedVersions);
+        }
+        if (update.getUpdateObject().isEmpty()) {
+            return template.findOne(query(criteria), Album.class);
+        }
+        return template.findAndModify(query(criteria), update.inc(VERSION, 1),
+                FindAndModifyOptions.options().returnNew(true), Album.class);
+    }
+
+    @Override
+    public Mono<Album> updateUnversioned(Album album) {
+        Update update = new Update()
+                .set("title", album.title())
+                .set(TITLE_KEY, AlbumSearchKeys.normalize(album.title()))
+                .set("artistName", album.artistName())
+                .set(ARTIST_NAME_KEY, AlbumSearchKeys.normalize(album.artistName()))
+                .set("type", album.type())
+                .set("stock", album.stock())
+                .set(VERSION, 1L);
+        return template.findAndModify(query(where("_id").is(album.id()).and(VERSION).exists(false)), update,
+                FindAndModifyOptions.options().returnNew(true), Album.class);
+    }
+
+    @Override
+    public Mono<Album> findAndRemove(String id, Set<Long> expectedVersions) {
+        Criteria criteria = where("_id").is(id);
+        if (expectedVersions != null) {
+            criteria = criteria.and(VERSION).in(expectedVersions);
+        }
+        return template.findAndRemove(query(criteria), Album.class);
+    }
+
+    @Override
+    public Mono<AlbumFacets> facets(String titlePrefix, String artistNamePrefix, int artistLimit) {
+        List<Criteria> filters = new ArrayList<>();
+        if (titlePrefix != null && !titlePrefix.isBlank()) {
+            filters.add(where(TITLE_KEY).regex(AlbumSearchKeys.prefixPattern(titlePrefix)));
+        }
+        if (artistNamePrefix != null && !artistNamePrefix.isBlank()) {
+            filters.add(where(ARTIST_NAME_KEY).regex(AlbumSearchKeys.prefixPattern(artistNamePrefix)));
+        }
+        String[] facetFields = AlbumIndexes.FACET_FIELDS.toArray(String[]::new);
+        List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(filters.isEmpty()
+                ? Aggregation.sort(Sort.by(facetFields))
+                : Aggregation.match(new Criteria().andOperator(filters)));
+        operations.add(Aggregation.project(facetFields).andExclude("_id"));
+        Sort byCount = Sort.by(Sort.Direction.DESC, COUNT).and(Sort.by("_id"));
+        operations.add(Aggregation
+                .facet(Aggregation.group("type").count().as(COUNT), Aggregation.sort(byCount))
+                .as("types")
+                .and(Aggregation.group("artistName").count().as(COUNT), Aggregation.sort(byCount), Aggregation.limit(artistLimit))
+                .as("artists")
+                .and(Aggregation.project().and(ConditionalOperators.when(ComparisonOperators.valueOf("stock").greaterThanValue(0))
+                                .then(IN_STOCK)
+                                .otherwise(OUT_OF_STOCK)).as(AVAILABILITY),
+                        Aggregation.group(AVAILABILITY).count().as(COUNT),
+                        Aggregation.sort(Sort.Direction.ASC, "_id"))
+                .as(AVAILABILITY));
+
+        Aggregation aggregation = Aggregation.newAggregation(operations)
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        return template.aggregate(aggregation, collection(), Document.class)
+                .next()
+                .map(facets -> new AlbumFacets(counts(facets, "types"), counts(facets, "artists"), counts(facets, AVAILABILITY)));
+    }
+
+    @Override
+    public Flux<Album> streamAll(int batchSize) {
+        return template.find(new Query().cursorBatchSize(batchSize), Album.class);
+    }
+
+    @Override
+    public Flux<Album> streamByTitleContainingIgnoreCase(String title, int batchSize) {
+        return template.find(containingIgnoreCase("title", title).cursorBatchSize(batchSize), Album.class);
+    }
+
+    @Override
+    public Flux<Album> streamByArtistNameContainingIgnoreCase(String artistName, int batchSize) {
+        return template.find(containingIgnoreCase("artistName", artistName).cursorBatchSize(batchSize), Album.class);
+    }
+
+    @Override
+    public Flux<Album> findAfterOrderByIdAsc(String afterId, Limit limit) {
+        return findAfter(new Query(), afterId, limit);
+    }
+
+    @Override
+    public Flux<Album> findByTitleContainingIgnoreCaseAfterOrderByIdAsc(String title, String afterId, Limit limit) {
+        return findAfter(containingIgnoreCase("title", title), afterId, limit);
+    }
+
+    @Override
+    public Flux<Album> findByArtistNameContainingIgnoreCaseAfterOrderByIdAsc(String artistName, String afterId, Limit limit) {
+        return findAfter(containingIgnoreCase("artistName", artistName), afterId, limit);
+    }
+
+    private Flux<Album> findAfter(Query query, String afterId, Limit limit) {
+        return template.find(query.addCriteria(after(afterId)).with(Sort.by("_id")).limit(limit.max()), Album.class);
+    }
+
+    /**
+     * Ids are stored as ObjectIds when they are valid hex ObjectIds and as strings otherwise. Mongo sorts them by BSON
+     * type first, strings before ObjectIds, and {@code $gt} only matches ids of its own type, so the page after a string
+     * id also has to take in every ObjectId.
+     */
+    private static Criteria after(String afterId) {
+        if (ObjectId.isValid(afterId)) {
+            return where("_id").gt(new ObjectId(afterId));
+        }
+        return new Criteria().orOperator(where("_id").gt(afterId), where("_id").type(JsonSchemaObject.Type.objectIdType()));
+    }
+
+    private static Query containingIgnoreCase(String field, String value) {
+        return query(where(field).regex(Pattern.quote(value), "i"));
+    }
+
+    private Document toDocument(Album album) {
+        Document document = new Document();
+        template.getConverter().write(album, document);
+        document.put(TITLE_KEY, AlbumSearchKeys.normalize(album.title()));
+        document.put(ARTIST_NAME_KEY, AlbumSearchKeys.normalize(album.artistName()));
+        document.put(VERSION, 0L);
+        return document;
+    }
+
+    private String collection() {
+        return template.getCollectionName(Album.class);
+    }
+
+    private static List<FacetCount> counts(Document facets, String facet) {
+        return facets.getList(facet, Document.class).stream()
+                .map(bucket -> new FacetCount(Objects.toString(bucket.get("_id"), null), ((Number) bucket.get(COUNT)).longValue()))
+                .toList();
+    }
+
+    private static List<AlbumImportError> importErrors(List<Album> albums, List<BulkWriteError> errors) {
+        return errors.stream()
+                .map(error -> new AlbumImportError(error.getIndex(), albums.get(error.getIndex()).id(), error.getMessage()))
+                .toList();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.Musicalog.repository;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public final class AlbumSearchKeys {
+
+    public static final String TITLE_KEY = "titleKey";
+    public static final String ARTIST_NAME_KEY = "artistNameKey";
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+
+    private AlbumSearchKeys() {
+    }
+
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACE.matcher(folded.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    public static String prefixPattern(String prefix) {
+        String normalized = normalize(prefix);
+        StringBuilder pattern = new StringBuilder(normalized.length() + 8).append('^');
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (REGEX_METACHARACTERS.indexOf(c) >= 0) {
+                pattern.append('\\');
+            }
+            pattern.append(c);
+        }
+        return pattern.toString();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.Musicalog.repository;
+
+import com.example.Musicalog.domain.Album;
+import org.bson.Document;
+import org.reactivestreams.Publisher;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveBeforeSaveCallback;
+import reactor.core.publisher.Mono;
+
+import static com.example.Musicalog.repository.AlbumSearchKeys.ARTIST_NAME_KEY;
+import static com.example.Musicalog.repository.AlbumSearchKeys.TITLE_KEY;
+
+public class AlbumSearchKeysCallback implements ReactiveBeforeSaveCallback<Album> {
+
+    @Override
+    public Publisher<Album> onBeforeSave(Album album, Document document, String collection) {
+        document.put(TITLE_KEY, AlbumSearchKeys.normalize(album.title()));
+        document.put(ARTIST_NAME_KEY, AlbumSearchKeys.normalize(album.artistName()));
+        return Mono.just(album);
+    }
+}
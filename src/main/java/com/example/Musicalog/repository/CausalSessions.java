@@ -0,0 +1,111 @@
+package com.example.Musicalog.repository;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.ReadPreference;
+import com.mongodb.reactivestreams.client.ClientSession;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Causally consistent reads across the replica set. A write hands out the operation time of the primary once it is done,
+ * and a read that passes it back runs in a causally consistent session advanced to that time, so the member serving it
+ * waits until it has applied everything up to it, however far behind it is. Only templates built on a {@link #bindable}
+ * database factory run their operations in that session.
+ */
+public class CausalSessions {
+
+    private static final String SESSION = CausalSessions.class.getName() + ".session";
+    private static final ClientSessionOptions CAUSALLY_CONSISTENT = ClientSessionOptions.builder().causallyConsistent(true).build();
+    private static final Document PING = new Document("ping", 1);
+
+    private final ReactiveMongoDatabaseFactory databaseFactory;
+
+    public CausalSessions(ReactiveMongoDatabaseFactory databaseFactory) {
+        this.databaseFactory = databaseFactory;
+    }
+
+    /**
+     * The last operation time applied by the primary, which covers every write acknowledged before it is asked for.
+     * Completes empty when the server reports none, as a standalone server does.
+     */
+    public Mono<BsonTimestamp> operationTime() {
+        return Mono.usingWhen(databaseFactory.getSession(CAUSALLY_CONSISTENT),
+                session -> databaseFactory.getMongoDatabase()
+                        .flatMap(database -> Mono.from(database.runCommand(session, PING, ReadPreference.primary())))
+                        .then(Mono.fromSupplier(session::getOperationTime)),
+                session -> Mono.fromRunnable(session::close));
+    }
+
+    public <T> Mono<T> readAfter(BsonTimestamp operationTime, Mono<T> operation) {
+        return Mono.usingWhen(databaseFactory.getSession(CAUSALLY_CONSISTENT).doOnNext(session -> session.advanceOperationTime(operationTime)),
+                session -> operation.contextWrite(bind(session)),
+                session -> Mono.fromRunnable(session::close));
+    }
+
+    public static Context bind(ClientSession session) {
+        return Context.of(SESSION, session);
+    }
+
+    public static boolean isBound(ContextView context) {
+        return context.hasKey(SESSION);
+    }
+
+    public static ReactiveMongoDatabaseFactory bindable(ReactiveMongoDatabaseFactory databaseFactory) {
+        return new SessionBoundDatabaseFactory(databaseFactory);
+    }
+
+    private static final class SessionBoundDatabaseFactory implements ReactiveMongoDatabaseFactory {
+
+        private final ReactiveMongoDatabaseFactory delegate;
+
+        private SessionBoundDatabaseFactory(ReactiveMongoDatabaseFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Mono<MongoDatabase> getMongoDatabase() {
+            return Mono.deferContextual(context -> context.<ClientSession>getOrEmpty(SESSION)
+                    .map(session -> delegate.withSession(session).getMongoDatabase())
+                    .orElseGet(delegate::getMongoDatabase));
+        }
+
+        @Override
+        public Mono<MongoDatabase> getMongoDatabase(String dbName) {
+            return Mono.deferContextual(context -> context.<ClientSession>getOrEmpty(SESSION)
+                    .map(session -> delegate.withSession(session).getMongoDatabase(dbName))
+                    .orElseGet(() -> delegate.getMongoDatabase(dbName)));
+        }
+
+        @Override
+        public PersistenceExceptionTranslator getExceptionTranslator() {
+            return delegate.getExceptionTranslator();
+        }
+
+        @Override
+        public CodecRegistry getCodecRegistry() {
+            return delegate.getCodecRegistry();
+        }
+
+        @Override
+        public Mono<ClientSession> getSession(ClientSessionOptions options) {
+            return delegate.getSession(options);
+        }
+
+        @Override
+        public ReactiveMongoDatabaseFactory withSession(ClientSession session) {
+            return delegate.withSession(session);
+        }
+
+        @Override
+        public boolean isTransactionActive() {
+            return delegate.isTransactionActive();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.Cover;
+import com.example.Musicalog.service.event.AlbumRemovedEvent;
+import com.example.Musicalog.service.event.AlbumSavedEvent;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.event.EventListener;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+public class AlbumCache implements MeterBinder {
+
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final AsyncCache<String, Album> cache;
+
+    public AlbumCache(long maximumWeight, Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher(AlbumCache::weigh)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync();
+    }
+
+    public Mono<Album> get(String albumId, Function<String, Mono<Album>> loader) {
+        return Mono.fromFuture(() -> cache.get(albumId, (id, executor) -> loader.apply(id).toFuture()), true);
+    }
+
+    public void invalidate(String albumId) {
+        cache.synchronous().invalidate(albumId);
+    }
+
+    @EventListener
+    public void onAlbumSaved(AlbumSavedEvent event) {
+        invalidate(event.album().id());
+    }
+
+    @EventListener
+    public void onAlbumRemoved(AlbumRemovedEvent event) {
+        invalidate(event.albumId());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "album");
+    }
+
+    private static int weigh(String albumId, Album album) {
+        Cover cover = album.cover();
+        int characters = length(albumId) + length(album.title()) + length(album.artistName());
+        if (cover != null) {
+            characters += length(cover.reference()) + length(cover.contentType()) + length(cover.hash());
+        }
+        return ENTRY_OVERHEAD + 2 * characters;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
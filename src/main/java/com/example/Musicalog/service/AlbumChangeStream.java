@@ -0,0 +1,64 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.service.event.AlbumRemovedEvent;
+import com.example.Musicalog.service.event.AlbumSavedEvent;
+import com.mongodb.client.model.changestream.OperationType;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.Disposable;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+public class AlbumChangeStream {
+
+    private static final Logger log = LoggerFactory.getLogger(AlbumChangeStream.class);
+
+    private final ReactiveMongoTemplate template;
+    private final ApplicationEventPublisher eventPublisher;
+    private Disposable subscription;
+
+    public AlbumChangeStream(ReactiveMongoTemplate template, ApplicationEventPublisher eventPublisher) {
+        this.template = template;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        ChangeStreamOptions options = ChangeStreamOptions.builder()
+                .returnFullDocumentOnUpdate()
+                .build();
+        subscription = template.changeStream(template.getCollectionName(Album.class), options, Album.class)
+                .doOnError(error -> log.warn("Album change stream failed, resubscribing", error))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofMinutes(1)))
+                .subscribe(this::publish);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private void publish(ChangeStreamEvent<Album> event) {
+        if (event.getOperationType() == OperationType.DELETE && event.getRaw() != null) {
+            eventPublisher.publishEvent(new AlbumRemovedEvent(albumId(event.getRaw().getDocumentKey().get("_id"))));
+        } else if (event.getBody() != null) {
+            eventPublisher.publishEvent(new AlbumSavedEvent(event.getBody()));
+        }
+    }
+
+    private static String albumId(BsonValue id) {
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.Musicalog.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+final class AlbumCursor {
+
+    private AlbumCursor() {
+    }
+
+    static String encode(String albumId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(albumId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decode(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.repository.AlbumRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+@Service
+public class AlbumExportService {
+
+    private final AlbumRepository repository;
+    private final int cursorBatchSize;
+
+    public AlbumExportService(AlbumRepository repository, int cursorBatchSize) {
+        this.repository = repository;
+        this.cursorBatchSize = cursorBatchSize;
+    }
+
+    public Flux<Album> streamAll() {
+        return repository.streamAll(cursorBatchSize);
+    }
+
+    public Flux<Album> streamAllByTitle(String title) {
+        return repository.streamByTitleContainingIgnoreCase(title, cursorBatchSize);
+    }
+
+    public Flux<Album> streamAllByArtistName(String artistName) {
+        return repository.streamByArtistNameContainingIgnoreCase(artistName, cursorBatchSize);
+    }
+}
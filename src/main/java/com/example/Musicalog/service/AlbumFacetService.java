@@ -0,0 +1,52 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.domain.AlbumFacets;
+import com.example.Musicalog.repository.AlbumRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+@Service
+public class AlbumFacetService {
+
+    private static final int MAXIMUM_CACHED_QUERIES = 1_000;
+
+    private final AlbumRepository repository;
+    private final AlbumMetrics metrics;
+    private final int artistLimit;
+    private final AsyncCache<FacetQuery, AlbumFacets> cache;
+
+    public AlbumFacetService(AlbumRepository repository, AlbumMetrics metrics, int artistLimit, Duration cacheTtl) {
+        this.repository = repository;
+        this.metrics = metrics;
+        this.artistLimit = artistLimit;
+        this.cache = cacheTtl.isZero() || cacheTtl.isNegative()
+                ? null
+                : Caffeine.newBuilder()
+                        .maximumSize(MAXIMUM_CACHED_QUERIES)
+                        .expireAfterWrite(cacheTtl)
+                        .buildAsync();
+    }
+
+    public Mono<AlbumFacets> facets(String titlePrefix, String artistNamePrefix) {
+        FacetQuery query = new FacetQuery(blankToNull(titlePrefix), blankToNull(artistNamePrefix));
+        if (cache == null) {
+            return metrics.timed("facets", load(query));
+        }
+        return metrics.timed("facets", Mono.fromFuture(() -> cache.get(query, (key, executor) -> load(key).toFuture()), true));
+    }
+
+    private Mono<AlbumFacets> load(FacetQuery query) {
+        return repository.facets(query.titlePrefix(), query.artistNamePrefix(), artistLimit);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private record FacetQuery(String titlePrefix, String artistNamePrefix) {
+    }
+}
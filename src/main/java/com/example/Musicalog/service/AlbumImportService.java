@@ -0,0 +1,150 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.AlbumImportError;
+import com.example.Musicalog.domain.AlbumImportResult;
+import com.example.Musicalog.domain.Cover;
+import com.example.Musicalog.repository.AlbumRepository;
+import com.example.Musicalog.service.event.AlbumSavedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.types.ObjectId;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Service
+public class AlbumImportService {
+
+    private final AlbumRepository repository;
+    private final CoverService coverService;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int concurrency;
+
+    public AlbumImportService(AlbumRepository repository, CoverService coverService, ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher,
+                              int batchSize, int concurrency) {
+        this.repository = repository;
+        this.coverService = coverService;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+    }
+
+    public Flux<AlbumImportResult> importAlbums(Flux<Album> albums) {
+        return importRows(albums.map(album -> new ImportRow(album, null)));
+    }
+
+    public Flux<AlbumImportResult> importLines(Flux<String> lines) {
+        return importRows(lines
+                .index()
+                .filter(line -> !line.getT2().isBlank())
+                .map(line -> decode(line.getT1() + 1, line.getT2())));
+    }
+
+    private Flux<AlbumImportResult> importRows(Flux<ImportRow> rows) {
+        return rows
+                .map(row -> row.failure() == null ? new ImportRow(withId(row.album()), null) : row)
+                .buffer(batchSize)
+                .index()
+                .flatMapSequential(batch -> insertBatch(batch.getT1(), batch.getT2()), concurrency, 1);
+    }
+
+    private ImportRow decode(long lineNumber, String line) {
+        try {
+            Album album = objectMapper.readValue(line, Album.class);
+            if (album != null) {
+                return new ImportRow(album, null);
+            }
+            return new ImportRow(null, "Line %d is not an album".formatted(lineNumber));
+        } catch (JsonProcessingException e) {
+            return new ImportRow(null, "Line %d is not a valid album: %s".formatted(lineNumber, e.getOriginalMessage()));
+        }
+    }
+
+    private Mono<AlbumImportResult> insertBatch(long batch, List<ImportRow> rows) {
+        return Flux.fromIterable(rows)
+                .flatMapSequential(row -> row.failure() == null ? retainCover(row.album()) : Mono.just(row))
+                .collectList()
+                .flatMap(retained -> {
+                    List<Integer> positions = IntStream.range(0, retained.size())
+                            .filter(position -> retained.get(position).failure() == null)
+                            .boxed()
+                            .toList();
+                    List<Album> accepted = positions.stream().map(position -> retained.get(position).album()).toList();
+                    return insertAccepted(accepted)
+                            .map(insertErrors -> {
+                                publishInserted(accepted, insertErrors);
+                                List<AlbumImportError> errors = new ArrayList<>();
+                                for (int position = 0; position < retained.size(); position++) {
+                                    ImportRow row = retained.get(position);
+                                    if (row.failure() != null) {
+                                        errors.add(new AlbumImportError(position, row.album() == null ? null : row.album().id(), row.failure()));
+                                    }
+                                }
+                                insertErrors.forEach(error -> errors.add(new AlbumImportError(positions.get(error.index()), error.albumId(), error.message())));
+                                errors.sort(Comparator.comparingInt(AlbumImportError::index));
+                                return new AlbumImportResult(batch, rows.size(), rows.size() - errors.size(), errors.size(), List.copyOf(errors));
+                            });
+                });
+    }
+
+    private Mono<List<AlbumImportError>> insertAccepted(List<Album> albums) {
+        if (albums.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return repository.insertAll(albums)
+                .onErrorResume(e -> releaseCovers(albums).then(Mono.error(e)))
+                .flatMap(errors -> releaseCovers(errors.stream().map(error -> albums.get(error.index())).toList()).thenReturn(errors));
+    }
+
+    private Mono<ImportRow> retainCover(Album album) {
+        Cover cover = album.cover();
+        if (cover == null) {
+            return Mono.just(new ImportRow(album, null));
+        }
+        return coverService.retain(cover)
+                .map(retained -> new ImportRow(withCover(album, retained), null))
+                .defaultIfEmpty(new ImportRow(album, "Cover not found with hash: %s".formatted(cover.hash())));
+    }
+
+    private Mono<Void> releaseCovers(List<Album> albums) {
+        return Flux.fromIterable(albums)
+                .filter(album -> album.cover() != null)
+                .concatMap(album -> coverService.release(album.cover()))
+                .then();
+    }
+
+    private void publishInserted(List<Album> albums, List<AlbumImportError> errors) {
+        Set<Integer> failed = errors.stream()
+                .map(AlbumImportError::index)
+                .collect(Collectors.toSet());
+        IntStream.range(0, albums.size())
+                .filter(position -> !failed.contains(position))
+                .forEach(position -> eventPublisher.publishEvent(new AlbumSavedEvent(albums.get(position))));
+    }
+
+    private static Album withId(Album album) {
+        if (album.id() != null) {
+            return album;
+        }
+        return new Album(new ObjectId().toHexString(), album.title(), album.artistName(), album.type(), album.stock(), album.cover(), album.version());
+    }
+
+    private static Album withCover(Album album, Cover cover) {
+        return new Album(album.id(), album.title(), album.artistName(), album.type(), album.stock(), cover, album.version());
+    }
+
+    private record ImportRow(Album album, String failure) {
+    }
+}
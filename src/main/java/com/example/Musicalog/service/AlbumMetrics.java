@@ -0,0 +1,85 @@
+package com.example.Musicalog.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AlbumMetrics {
+
+    public static final String SERVICE_TIMER = "album.service";
+    public static final String RESULT_SIZE = "album.service.results";
+    public static final String COVER_SIZE = "album.cover.size";
+    public static final String COALESCED = "album.service.coalesced";
+
+    private static final String METHOD = "method";
+    private static final String OUTCOME = "outcome";
+
+    private final MeterRegistry registry;
+
+    public AlbumMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> Mono<T> timed(String method, Mono<T> source) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return source
+                    .doOnSuccess(value -> stop(sample, method, "success"))
+                    .doOnError(error -> stop(sample, method, error.getClass().getSimpleName()))
+                    .doOnCancel(() -> stop(sample, method, "cancelled"));
+        });
+    }
+
+    public <T> Flux<T> timed(String method, Flux<T> source) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            AtomicLong results = new AtomicLong();
+            return source
+                    .doOnNext(value -> results.incrementAndGet())
+                    .doOnComplete(() -> {
+                        stop(sample, method, "success");
+                        recordResultSize(method, results.get());
+                    })
+                    .doOnError(error -> stop(sample, method, error.getClass().getSimpleName()))
+                    .doOnCancel(() -> stop(sample, method, "cancelled"));
+        });
+    }
+
+    public void recordResultSize(String method, long results) {
+        DistributionSummary.builder(RESULT_SIZE)
+                .description("Number of albums returned per listing call")
+                .tag(METHOD, method)
+                .register(registry)
+                .record(results);
+    }
+
+    public void recordCoverSize(String direction, long bytes) {
+        DistributionSummary.builder(COVER_SIZE)
+                .description("Size of cover payloads")
+                .baseUnit("bytes")
+                .tag("direction", direction)
+                .register(registry)
+                .record(bytes);
+    }
+
+    public void recordCoalesced(String method) {
+        Counter.builder(COALESCED)
+                .description("Album service calls that joined an identical in-flight call")
+                .tag(METHOD, method)
+                .register(registry)
+                .increment();
+    }
+
+    private void stop(Timer.Sample sample, String method, String outcome) {
+        sample.stop(Timer.builder(SERVICE_TIMER)
+                .description("Latency of album service calls")
+                .tag(METHOD, method)
+                .tag(OUTCOME, outcome)
+                .register(registry));
+    }
+}
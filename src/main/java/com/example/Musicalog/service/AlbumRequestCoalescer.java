@@ -0,0 +1,92 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.service.event.AlbumRemovedEvent;
+import com.example.Musicalog.service.event.AlbumSavedEvent;
+import org.springframework.context.event.EventListener;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+public class AlbumRequestCoalescer {
+
+    static final String FIND_BY_ID = "findById";
+
+    private final Set<String> methods;
+    private final int maxResults;
+    private final AlbumMetrics metrics;
+    private final ConcurrentMap<Key, Mono<?>> inFlight = new ConcurrentHashMap<>();
+
+    public AlbumRequestCoalescer(Set<String> methods, int maxResults, AlbumMetrics metrics) {
+        this.methods = Set.copyOf(methods);
+        this.maxResults = maxResults;
+        this.metrics = metrics;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> coalesce(String method, Supplier<Mono<T>> source, Object... arguments) {
+        if (!methods.contains(method)) {
+            return Mono.defer(source);
+        }
+        return Mono.defer(() -> {
+            Key key = new Key(method, Arrays.asList(arguments));
+            AtomicBoolean leader = new AtomicBoolean();
+            Mono<T> shared = (Mono<T>) inFlight.computeIfAbsent(key, ignored -> {
+                leader.set(true);
+                return share(key, source.get());
+            });
+            if (!leader.get()) {
+                metrics.recordCoalesced(method);
+            }
+            return shared;
+        });
+    }
+
+    /**
+     * Shares at most {@code maxResults} albums between identical calls; when a call returns more, every caller runs and
+     * streams its own query instead, so a broad listing is never buffered in full.
+     */
+    public <T> Flux<T> coalesceMany(String method, Supplier<Flux<T>> source, Object... arguments) {
+        if (!methods.contains(method)) {
+            return Flux.defer(source);
+        }
+        return coalesce(method, () -> source.get().take(maxResults + 1L).collectList(), arguments)
+                .flatMapMany(results -> results.size() > maxResults ? Flux.defer(source) : Flux.fromIterable(results));
+    }
+
+    @EventListener
+    public void onAlbumSaved(AlbumSavedEvent event) {
+        detach(event.album().id());
+    }
+
+    @EventListener
+    public void onAlbumRemoved(AlbumRemovedEvent event) {
+        detach(event.albumId());
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    private void detach(String albumId) {
+        inFlight.keySet().removeIf(key -> !key.method().equals(FIND_BY_ID) || key.arguments().equals(List.of(albumId)));
+    }
+
+    private <T> Mono<T> share(Key key, Mono<T> source) {
+        AtomicReference<Mono<T>> shared = new AtomicReference<>();
+        shared.set(source
+                .doFinally(signal -> inFlight.remove(key, shared.get()))
+                .cache());
+        return shared.get();
+    }
+
+    private record Key(String method, List<Object> arguments) {
+    }
+}
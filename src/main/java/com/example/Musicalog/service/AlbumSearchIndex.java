@@ -0,0 +1,187 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.repository.AlbumRepository;
+import com.example.Musicalog.service.event.AlbumRemovedEvent;
+import com.example.Musicalog.service.event.AlbumSavedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class AlbumSearchIndex implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(AlbumSearchIndex.class);
+    private static final double RECOVERY_RATIO = 0.9;
+
+    private final AlbumRepository repository;
+    private final long maximumBytes;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AlbumTrigramIndex index = new AlbumTrigramIndex();
+    private final Set<String> removedWhileBuilding = new HashSet<>();
+    private boolean building;
+    private boolean ready;
+    private boolean overBudget;
+    private boolean skippedWhileBuilding;
+
+    public AlbumSearchIndex(AlbumRepository repository, long maximumBytes) {
+        this.repository = repository;
+        this.maximumBytes = maximumBytes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        build().subscribe(
+                indexed -> log.info("Album search index ready with {} albums, about {} bytes", indexed, estimatedBytes()),
+                error -> log.warn("Could not build album search index, fuzzy search falls back to text search", error));
+    }
+
+    public Mono<Integer> build() {
+        return Mono.fromRunnable(() -> write(this::beginBuild))
+                .then(scan());
+    }
+
+    @EventListener
+    public void onAlbumSaved(AlbumSavedEvent event) {
+        Album album = event.album();
+        write(() -> add(album.id(), album.title(), album.artistName()));
+    }
+
+    @EventListener
+    public void onAlbumRemoved(AlbumRemovedEvent event) {
+        boolean rebuild = writeAndGet(() -> {
+            index.remove(event.albumId());
+            if (building) {
+                removedWhileBuilding.add(event.albumId());
+            }
+            if (overBudget && !building && index.estimatedBytes() <= maximumBytes * RECOVERY_RATIO) {
+                beginBuild();
+                return true;
+            }
+            return false;
+        });
+        if (rebuild) {
+            log.info("Album search index shrank to {} bytes, rebuilding it to resume fuzzy search", estimatedBytes());
+            scan().subscribe(
+                    indexed -> log.info("Album search index rebuilt with {} albums, about {} bytes", indexed, estimatedBytes()),
+                    error -> log.warn("Could not rebuild album search index, fuzzy search keeps falling back to text search", error));
+        }
+    }
+
+    public Flux<Album> search(String text, int limit) {
+        if (text == null || text.isBlank()) {
+            return Flux.empty();
+        }
+        return Flux.defer(() -> {
+            List<AlbumTrigramIndex.Match> matches = read(() -> ready && !overBudget ? index.search(text, limit) : null);
+            if (matches == null) {
+                return repository.findAllBy(TextCriteria.forDefaultLanguage().matching(text)).take(limit);
+            }
+            if (matches.isEmpty()) {
+                return Flux.empty();
+            }
+            return repository.findAllById(matches.stream().map(AlbumTrigramIndex.Match::albumId).toList())
+                    .collectMap(Album::id, Function.identity())
+                    .flatMapIterable(albums -> matches.stream()
+                            .map(match -> albums.get(match.albumId()))
+                            .filter(Objects::nonNull)
+                            .toList());
+        });
+    }
+
+    public int size() {
+        return read(index::size);
+    }
+
+    public long estimatedBytes() {
+        return read(index::estimatedBytes);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("album.search.index.albums", this, AlbumSearchIndex::size)
+                .description("Albums held by the in-memory search index")
+                .register(registry);
+        Gauge.builder("album.search.index.size", this, AlbumSearchIndex::estimatedBytes)
+                .description("Estimated heap used by the in-memory search index")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private void beginBuild() {
+        building = true;
+        skippedWhileBuilding = false;
+    }
+
+    private Mono<Integer> scan() {
+        return repository.findAllProjectedBy()
+                .doOnNext(summary -> write(() -> {
+                    if (!index.contains(summary.id()) && !removedWhileBuilding.contains(summary.id())) {
+                        add(summary.id(), summary.title(), summary.artistName());
+                    }
+                }))
+                .doOnComplete(() -> write(() -> {
+                    ready = true;
+                    if (overBudget && !skippedWhileBuilding && index.estimatedBytes() <= maximumBytes) {
+                        overBudget = false;
+                    }
+                }))
+                .doFinally(signal -> write(() -> {
+                    building = false;
+                    removedWhileBuilding.clear();
+                }))
+                .then(Mono.fromSupplier(this::size));
+    }
+
+    private void add(String albumId, String title, String artistName) {
+        if (!index.contains(albumId) && (overBudget && !building || index.estimatedBytes() > maximumBytes)) {
+            skippedWhileBuilding |= building;
+            return;
+        }
+        index.put(albumId, title, artistName);
+        if (!overBudget && index.estimatedBytes() > maximumBytes) {
+            overBudget = true;
+            log.warn("Album search index exceeded {} bytes with {} albums, fuzzy search falls back to text search", maximumBytes, index.size());
+        }
+    }
+
+    private <T> T read(Supplier<T> operation) {
+        lock.readLock().lock();
+        try {
+            return operation.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable operation) {
+        writeAndGet(() -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    private <T> T writeAndGet(Supplier<T> operation) {
+        lock.writeLock().lock();
+        try {
+            return operation.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -2,60 +2,257 @@ package com.example.Musicalog.service;
 
 import com.example.Musicalog.service.exception.NotFoundException;
 import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.AlbumBatch;
+import com.example.Musicalog.domain.AlbumPage;
+import com.example.Musicalog.domain.AlbumPatch;
+import com.example.Musicalog.domain.AlbumSummary;
+import com.example.Musicalog.domain.StockLevel;
 import com.example.Musicalog.repository.AlbumRepository;
+import com.example.Musicalog.repository.AlbumSearchKeys;
+import com.example.Musicalog.repository.CausalSessions;
+import com.example.Musicalog.service.event.AlbumRemovedEvent;
+import com.example.Musicalog.service.event.AlbumSavedEvent;
+import com.example.Musicalog.service.exception.ConflictException;
+import com.example.Musicalog.service.exception.InsufficientStockException;
+import com.example.Musicalog.service.exception.PreconditionFailedException;
 import com.example.Musicalog.service.exception.ServiceException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.query.TextCriteria;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
 @Service
 public class AlbumService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_BATCH_SIZE = 100;
+
     private final AlbumRepository repository;
+    private final AlbumRepository listingRepository;
+    private final CoverService coverService;
+    private final AlbumCache cache;
+    private final AlbumRequestCoalescer coalescer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AlbumMetrics metrics;
 
-    public AlbumService(AlbumRepository repository) {
+    public AlbumService(AlbumRepository repository, AlbumRepository listingRepository, CoverService coverService, AlbumCache cache,
+                        AlbumRequestCoalescer coalescer, ApplicationEventPublisher eventPublisher, AlbumMetrics metrics) {
         this.repository = repository;
+        this.listingRepository = listingRepository;
+        this.coverService = coverService;
+        this.cache = cache;
+        this.coalescer = coalescer;
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
     }
 
     public Flux<Album> findAll() {
-        return repository.findAll();
+        return metrics.timed("findAll", coalescedRead("findAll", albums -> albums.findAll()));
     }
 
     public Flux<Album> findAllByTitle(String title) {
-        return repository.findByTitleContainingIgnoreCase(title);
+        return metrics.timed("findAllByTitle", coalescedRead("findAllByTitle", albums -> albums.findByTitleContainingIgnoreCase(title), title));
     }
 
     public Flux<Album> findAllByArtistName(String artistName) {
-        return repository.findByArtistNameContainingIgnoreCase(artistName);
+        return metrics.timed("findAllByArtistName", coalescedRead("findAllByArtistName", albums -> albums.findByArtistNameContainingIgnoreCase(artistName), artistName));
+    }
+
+    public Flux<AlbumSummary> findAllSummaries() {
+        return metrics.timed("findAllSummaries", coalescedRead("findAllSummaries", albums -> albums.findAllProjectedBy()));
+    }
+
+    public Flux<AlbumSummary> findAllSummariesByTitle(String title) {
+        return metrics.timed("findAllSummariesByTitle", coalescedRead("findAllSummariesByTitle", albums -> albums.findSummariesByTitleContainingIgnoreCase(title), title));
+    }
+
+    public Flux<AlbumSummary> findAllSummariesByArtistName(String artistName) {
+        return metrics.timed("findAllSummariesByArtistName", coalescedRead("findAllSummariesByArtistName", albums -> albums.findSummariesByArtistNameContainingIgnoreCase(artistName), artistName));
+    }
+
+    public Mono<AlbumPage> findPage(String after, int limit) {
+        return page("findPage", after, limit, (albums, afterId, pageLimit) -> afterId == null
+                ? albums.findAllByOrderByIdAsc(pageLimit)
+                : albums.findAfterOrderByIdAsc(afterId, pageLimit));
+    }
+
+    public Mono<AlbumPage> findPageByTitle(String title, String after, int limit) {
+        return page("findPageByTitle", after, limit, (albums, afterId, pageLimit) -> afterId == null
+                ? albums.findByTitleContainingIgnoreCaseOrderByIdAsc(title, pageLimit)
+                : albums.findByTitleContainingIgnoreCaseAfterOrderByIdAsc(title, afterId, pageLimit));
+    }
+
+    public Mono<AlbumPage> findPageByArtistName(String artistName, String after, int limit) {
+        return page("findPageByArtistName", after, limit, (albums, afterId, pageLimit) -> afterId == null
+                ? albums.findByArtistNameContainingIgnoreCaseOrderByIdAsc(artistName, pageLimit)
+                : albums.findByArtistNameContainingIgnoreCaseAfterOrderByIdAsc(artistName, afterId, pageLimit));
+    }
+
+    public Flux<Album> searchByTitlePrefix(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return Flux.empty();
+        }
+        return metrics.timed("searchByTitlePrefix", coalescedRead("searchByTitlePrefix", albums -> albums.findByTitleKeyMatching(AlbumSearchKeys.prefixPattern(prefix)), prefix));
+    }
+
+    public Flux<Album> searchByArtistNamePrefix(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return Flux.empty();
+        }
+        return metrics.timed("searchByArtistNamePrefix", coalescedRead("searchByArtistNamePrefix", albums -> albums.findByArtistNameKeyMatching(AlbumSearchKeys.prefixPattern(prefix)), prefix));
+    }
+
+    public Flux<Album> search(String text) {
+        if (text == null || text.isBlank()) {
+            return Flux.empty();
+        }
+        return metrics.timed("search", coalescedRead("search", albums -> albums.findAllBy(TextCriteria.forDefaultLanguage().matching(text)), text));
     }
 
     public Mono<Album> findById(String id) {
-        return repository.findById(id)
-                .switchIfEmpty(Mono.error(new NotFoundException("Album not found with id: %s when updating".formatted(id))));
+        return metrics.timed("findById", coalescer.coalesce("findById", () -> cache.get(id, repository::findById), id)
+                .switchIfEmpty(Mono.error(new NotFoundException("Album not found with id: %s when updating".formatted(id)))));
+    }
+
+    public Mono<AlbumBatch<Album>> findAllById(List<String> ids) {
+        return metrics.timed("findAllById", batch(ids, repository::findAllById, Album::id));
+    }
+
+    public Mono<AlbumBatch<AlbumSummary>> findAllSummariesById(List<String> ids) {
+        return metrics.timed("findAllSummariesById", batch(ids, repository::findSummariesByIdIn, AlbumSummary::id));
     }
 
     public Mono<Album> save(Album album) {
-        return repository.save(album)
-                .switchIfEmpty(Mono.error(new ServiceException("Album with id %s could not be saved".formatted(album.id()))));
+        if (album.version() != null) {
+            return Mono.error(new IllegalArgumentException("Album with id %s cannot be created with a version, use update instead".formatted(album.id())));
+        }
+        return metrics.timed("save", retainCover(album)
+                .flatMap(retained -> repository.save(retained)
+                        .onErrorResume(e -> coverService.release(retained.cover()).then(Mono.error(e))))
+                .doOnNext(this::publishSaved)
+                .onErrorMap(e -> e instanceof DuplicateKeyException || e instanceof OptimisticLockingFailureException,
+                        e -> new ConflictException("Album with id %s already exists".formatted(album.id())))
+                .switchIfEmpty(Mono.error(new ServiceException("Album with id %s could not be saved".formatted(album.id())))));
     }
 
-    public Mono<Album> update(Album album) {
-        return repository.findById(album.id())
+    public Mono<Album> update(Album album, Set<Long> expectedVersions) {
+        return metrics.timed("update", repository.findById(album.id())
                 .flatMap(existingAlbum -> {
+                    if (expectedVersions != null && (existingAlbum.version() == null || !expectedVersions.contains(existingAlbum.version()))) {
+                        return Mono.<Album>error(preconditionFailed(album.id()));
+                    }
                     var editedAlbum = new Album(
                             existingAlbum.id(),
                             album.title(),
                             album.artistName(),
                             album.type(),
                             album.stock(),
-                            album.cover()
+                            existingAlbum.cover(),
+                            existingAlbum.version()
                     );
+                    if (existingAlbum.version() == null) {
+                        return repository.updateUnversioned(editedAlbum)
+                                .switchIfEmpty(Mono.error(preconditionFailed(album.id())));
+                    }
                     return repository.save(editedAlbum);
                 })
-                .switchIfEmpty(Mono.error(new NotFoundException("Album not found with id: %s when updating".formatted(album.id()))));
+                .onErrorMap(OptimisticLockingFailureException.class, e -> preconditionFailed(album.id()))
+                .doOnNext(this::publishSaved)
+                .switchIfEmpty(Mono.error(new NotFoundException("Album not found with id: %s when updating".formatted(album.id())))));
+    }
+
+    public Mono<Album> patch(String albumId, AlbumPatch patch, Set<Long> expectedVersions) {
+        return metrics.timed("patch", repository.patch(albumId, patch, expectedVersions)
+                .doOnNext(this::publishSaved)
+                .switchIfEmpty(Mono.defer(() -> missingOrModified(albumId, expectedVersions, "patching"))));
+    }
+
+    public Mono<StockLevel> adjustStock(String albumId, int delta) {
+        return metrics.timed("adjustStock", repository.adjustStock(albumId, delta)
+                .doOnNext(this::publishSaved)
+                .map(album -> new StockLevel(album.id(), album.stock()))
+                .switchIfEmpty(Mono.defer(() -> repository.existsById(albumId)
+                        .flatMap(exists -> Mono.<StockLevel>error(!exists
+                                ? new NotFoundException("Album not found with id: %s when adjusting stock".formatted(albumId))
+                                : delta < 0
+                                        ? new InsufficientStockException("Not enough stock for album with id: %s to adjust by %d".formatted(albumId, delta))
+                                        : new ConflictException("Stock of album with id: %s cannot exceed %d".formatted(albumId, Integer.MAX_VALUE)))))));
+    }
+
+    public Mono<Void> remove(String albumId, Set<Long> expectedVersions) {
+        return metrics.timed("remove", repository.findAndRemove(albumId, expectedVersions)
+                .flatMap(removed -> coverService.release(removed.cover()).thenReturn(removed))
+                .switchIfEmpty(Mono.defer(() -> expectedVersions == null ? Mono.empty() : missingOrModified(albumId, expectedVersions, "removing")))
+                .then()
+                .doOnSuccess(ignored -> eventPublisher.publishEvent(new AlbumRemovedEvent(albumId))));
+    }
+
+    private Mono<Album> retainCover(Album album) {
+        if (album.cover() == null) {
+            return Mono.just(album);
+        }
+        return coverService.retain(album.cover())
+                .map(cover -> new Album(album.id(), album.title(), album.artistName(), album.type(), album.stock(), cover, album.version()))
+                .switchIfEmpty(Mono.error(new NotFoundException("Cover not found with hash: %s when saving album with id: %s".formatted(album.cover().hash(), album.id()))));
+    }
+
+    private <T> Mono<T> missingOrModified(String albumId, Set<Long> expectedVersions, String operation) {
+        return repository.existsById(albumId)
+                .flatMap(exists -> Mono.<T>error(exists && expectedVersions != null
+                        ? preconditionFailed(albumId)
+                        : new NotFoundException("Album not found with id: %s when %s".formatted(albumId, operation))));
+    }
+
+    private static PreconditionFailedException preconditionFailed(String albumId) {
+        return new PreconditionFailedException("Album with id %s was modified concurrently".formatted(albumId));
+    }
+
+    private void publishSaved(Album album) {
+        eventPublisher.publishEvent(new AlbumSavedEvent(album));
+    }
+
+    private <T> Flux<T> coalescedRead(String method, Function<AlbumRepository, Flux<T>> query, Object... arguments) {
+        return Flux.deferContextual(context -> CausalSessions.isBound(context)
+                ? query.apply(listingRepository)
+                : coalescer.coalesceMany(method, () -> query.apply(listingRepository), arguments));
+    }
+
+    private Mono<AlbumPage> page(String method, String after, int limit, PageQuery query) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return metrics.timed(method, Mono.fromCallable(() -> after == null || after.isBlank() ? Optional.<String>empty() : Optional.of(AlbumCursor.decode(after)))
+                .flatMap(afterId -> query.find(listingRepository, afterId.orElse(null), Limit.of(pageSize + 1)).collectList())
+                .map(albums -> albums.size() > pageSize
+                        ? new AlbumPage(albums.subList(0, pageSize), AlbumCursor.encode(albums.get(pageSize - 1).id()))
+                        : new AlbumPage(albums, null))
+                .doOnNext(albumPage -> metrics.recordResultSize(method, albumPage.albums().size())));
+    }
+
+    private <T> Mono<AlbumBatch<T>> batch(List<String> ids, Function<Collection<String>, Flux<T>> query, Function<T, String> idOf) {
+        Set<String> requested = new LinkedHashSet<>(ids);
+        if (requested.size() > MAX_BATCH_SIZE) {
+            return Mono.error(new IllegalArgumentException("At most %d album ids can be requested at once".formatted(MAX_BATCH_SIZE)));
+        }
+        if (requested.isEmpty()) {
+            return Mono.just(new AlbumBatch<>(List.of(), List.of()));
+        }
+        return query.apply(requested).collectMap(idOf)
+                .map(found -> new AlbumBatch<>(
+                        requested.stream().filter(found::containsKey).map(found::get).toList(),
+                        requested.stream().filter(id -> !found.containsKey(id)).toList()));
     }
 
-    public Mono<Void> remove(String albumId) {
-        return repository.deleteById(albumId);
+    private interface PageQuery {
+        Flux<Album> find(AlbumRepository albums, String afterId, Limit limit);
     }
 }
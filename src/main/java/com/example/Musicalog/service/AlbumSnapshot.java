@@ -0,0 +1,8 @@
+package com.example.Musicalog.service;
+
+public record AlbumSnapshot(
+        byte[] gzippedJson,
+        long albums,
+        String eTag
+) {
+}
@@ -0,0 +1,119 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.repository.AlbumRepository;
+import com.example.Musicalog.service.event.AlbumRemovedEvent;
+import com.example.Musicalog.service.event.AlbumSavedEvent;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.event.EventListener;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+public class AlbumSnapshotService {
+
+    private final AlbumRepository repository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final AtomicReference<Mono<AlbumSnapshot>> current = new AtomicReference<>();
+
+    public AlbumSnapshotService(AlbumRepository repository, ObjectMapper objectMapper, boolean enabled) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    public Mono<AlbumSnapshot> get() {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            while (true) {
+                Mono<AlbumSnapshot> snapshot = current.get();
+                if (snapshot != null) {
+                    return snapshot;
+                }
+                Mono<AlbumSnapshot> created = build().cache();
+                if (current.compareAndSet(null, created)) {
+                    return created.doOnError(e -> current.compareAndSet(created, null));
+                }
+            }
+        });
+    }
+
+    public void invalidate() {
+        current.set(null);
+    }
+
+    @EventListener
+    public void onAlbumSaved(AlbumSavedEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    public void onAlbumRemoved(AlbumRemovedEvent event) {
+        invalidate();
+    }
+
+    private Mono<AlbumSnapshot> build() {
+        return Mono.using(() -> new SnapshotWriter(objectMapper),
+                writer -> repository.findAll()
+                        .doOnNext(writer::write)
+                        .count()
+                        .map(writer::finish),
+                SnapshotWriter::close);
+    }
+
+    private static final class SnapshotWriter {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final JsonGenerator generator;
+
+        SnapshotWriter(ObjectMapper objectMapper) throws IOException {
+            this.generator = objectMapper.createGenerator(new GZIPOutputStream(bytes));
+            this.generator.writeStartArray();
+        }
+
+        void write(Album album) {
+            try {
+                generator.writeObject(album);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        AlbumSnapshot finish(long albums) {
+            try {
+                generator.writeEndArray();
+                generator.close();
+                byte[] content = bytes.toByteArray();
+                return new AlbumSnapshot(content, albums, "\"" + HexFormat.of().formatHex(sha256().digest(content), 0, 16) + "\"");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void close() {
+            try {
+                generator.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        private static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
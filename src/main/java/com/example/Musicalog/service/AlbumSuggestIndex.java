@@ -0,0 +1,234 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.repository.AlbumRepository;
+import com.example.Musicalog.repository.AlbumSearchKeys;
+import com.example.Musicalog.service.event.AlbumRemovedEvent;
+import com.example.Musicalog.service.event.AlbumSavedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class AlbumSuggestIndex implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(AlbumSuggestIndex.class);
+
+    private final AlbumRepository repository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final PrefixSuggester titles = new PrefixSuggester();
+    private final PrefixSuggester artistNames = new PrefixSuggester();
+    private final Map<String, Integer> slotsById = new HashMap<>();
+    private final Set<String> removedWhileBuilding = new HashSet<>();
+    private int[] titleTerms = new int[16];
+    private int[] artistNameTerms = new int[16];
+    private int[] stocks = new int[16];
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount;
+    private int slots;
+    private boolean building;
+    private boolean ready;
+
+    public AlbumSuggestIndex(AlbumRepository repository) {
+        this.repository = repository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        build()
+                .doOnError(error -> log.warn("Could not build album suggest index, suggestions fall back to prefix search until it is retried", error))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofMinutes(1)))
+                .subscribe(indexed -> log.info("Album suggest index ready with {} titles and {} artists", indexed, artistNames.size()));
+    }
+
+    public Mono<Integer> build() {
+        return Mono.fromRunnable(() -> write(() -> {
+                    building = true;
+                    titles.beginBulkLoad();
+                    artistNames.beginBulkLoad();
+                }))
+                .thenMany(repository.findAllProjectedBy())
+                .doOnNext(summary -> write(() -> {
+                    if (!slotsById.containsKey(summary.id()) && !removedWhileBuilding.contains(summary.id())) {
+                        put(summary.id(), summary.title(), summary.artistName(), summary.stock());
+                    }
+                }))
+                .doFinally(signal -> write(() -> {
+                    titles.endBulkLoad();
+                    artistNames.endBulkLoad();
+                    building = false;
+                    removedWhileBuilding.clear();
+                }))
+                .then(Mono.when(merge(titles), merge(artistNames)))
+                .then(Mono.fromRunnable(() -> write(() -> ready = true)))
+                .then(Mono.fromSupplier(() -> read(titles::size)));
+    }
+
+    @EventListener
+    public void onAlbumSaved(AlbumSavedEvent event) {
+        Album album = event.album();
+        write(() -> put(album.id(), album.title(), album.artistName(), album.stock()));
+        mergeIfNeeded();
+    }
+
+    @EventListener
+    public void onAlbumRemoved(AlbumRemovedEvent event) {
+        write(() -> {
+            remove(event.albumId());
+            if (building) {
+                removedWhileBuilding.add(event.albumId());
+            }
+        });
+        mergeIfNeeded();
+    }
+
+    public Mono<List<String>> suggestTitles(String prefix, int limit) {
+        return suggest(titles, prefix, limit, pattern -> repository.findByTitleKeyMatching(pattern).map(Album::title));
+    }
+
+    public Mono<List<String>> suggestArtistNames(String prefix, int limit) {
+        return suggest(artistNames, prefix, limit, pattern -> repository.findByArtistNameKeyMatching(pattern).map(Album::artistName));
+    }
+
+    public long estimatedBytes() {
+        return read(() -> titles.estimatedBytes() + artistNames.estimatedBytes() + 12L * titleTerms.length + 4L * freeSlots.length);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("album.suggest.index.terms", this, index -> index.read(titles::size))
+                .description("Distinct terms held by the in-memory suggest index")
+                .tag("field", "title")
+                .register(registry);
+        Gauge.builder("album.suggest.index.terms", this, index -> index.read(artistNames::size))
+                .description("Distinct terms held by the in-memory suggest index")
+                .tag("field", "artistName")
+                .register(registry);
+        Gauge.builder("album.suggest.index.size", this, AlbumSuggestIndex::estimatedBytes)
+                .description("Estimated heap used by the in-memory suggest index")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private Mono<List<String>> suggest(PrefixSuggester suggester, String prefix, int limit, Function<String, Flux<String>> fallback) {
+        if (prefix == null || prefix.isBlank()) {
+            return Mono.just(List.of());
+        }
+        return Mono.defer(() -> {
+            List<String> suggestions = read(() -> ready ? suggester.suggest(prefix, limit) : null);
+            if (suggestions != null) {
+                return Mono.just(suggestions);
+            }
+            return fallback.apply(AlbumSearchKeys.prefixPattern(prefix))
+                    .distinct(AlbumSearchKeys::normalize)
+                    .take(limit)
+                    .collectList();
+        });
+    }
+
+    private void mergeIfNeeded() {
+        for (PrefixSuggester suggester : List.of(titles, artistNames)) {
+            if (read(suggester::needsMerge)) {
+                merge(suggester).subscribe(null, error -> log.warn("Could not merge album suggest index", error));
+            }
+        }
+    }
+
+    private Mono<Void> merge(PrefixSuggester suggester) {
+        return Mono.fromCallable(() -> writeAndGet(suggester::beginMerge))
+                .flatMap(merge -> Mono.fromRunnable(() -> {
+                            merge.build();
+                            write(merge::publish);
+                        })
+                        .doOnError(error -> write(merge::abort)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(Mono.defer(() -> read(suggester::needsMerge) ? merge(suggester) : Mono.empty()));
+    }
+
+    private void put(String albumId, String title, String artistName, Integer stock) {
+        int weight = stock == null ? 0 : Math.max(0, stock);
+        int titleTerm = titles.add(title, weight);
+        int artistNameTerm = artistNames.add(artistName, weight);
+        Integer slot = slotsById.get(albumId);
+        if (slot == null) {
+            slot = allocateSlot();
+            slotsById.put(albumId, slot);
+        } else {
+            titles.remove(titleTerms[slot], stocks[slot]);
+            artistNames.remove(artistNameTerms[slot], stocks[slot]);
+        }
+        titleTerms[slot] = titleTerm;
+        artistNameTerms[slot] = artistNameTerm;
+        stocks[slot] = weight;
+    }
+
+    private void remove(String albumId) {
+        Integer slot = slotsById.remove(albumId);
+        if (slot == null) {
+            return;
+        }
+        titles.remove(titleTerms[slot], stocks[slot]);
+        artistNames.remove(artistNameTerms[slot], stocks[slot]);
+        if (freeSlotCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+        }
+        freeSlots[freeSlotCount++] = slot;
+    }
+
+    private int allocateSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        if (slots == titleTerms.length) {
+            int capacity = slots * 2;
+            titleTerms = Arrays.copyOf(titleTerms, capacity);
+            artistNameTerms = Arrays.copyOf(artistNameTerms, capacity);
+            stocks = Arrays.copyOf(stocks, capacity);
+        }
+        return slots++;
+    }
+
+    private <T> T read(Supplier<T> operation) {
+        lock.readLock().lock();
+        try {
+            return operation.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable operation) {
+        writeAndGet(() -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    private <T> T writeAndGet(Supplier<T> operation) {
+        lock.writeLock().lock();
+        try {
+            return operation.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.repository.AlbumSearchKeys;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+final class AlbumTrigramIndex {
+
+    static final double MIN_SHARED_TRIGRAMS = 0.3;
+    static final int MAX_CANDIDATES = 1_000;
+
+    private static final int STRING_OVERHEAD = 40;
+    private static final int SLOT_OVERHEAD = 3 * 8 + 48;
+    private static final int POSTINGS_OVERHEAD = 96;
+    private static final int MIN_COMPACTION_SLOTS = 1_024;
+
+    private final Map<String, Integer> slotsById = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private String[] ids = new String[16];
+    private String[] titles = new String[16];
+    private String[] artistNames = new String[16];
+    private int slots;
+    private long estimatedBytes;
+
+    record Match(String albumId, double score) {
+    }
+
+    void put(String albumId, String title, String artistName) {
+        String titleKey = normalize(title);
+        String artistNameKey = normalize(artistName);
+        Integer existing = slotsById.get(albumId);
+        if (existing != null && titles[existing].equals(titleKey) && artistNames[existing].equals(artistNameKey)) {
+            return;
+        }
+        remove(albumId);
+        if (slots == ids.length) {
+            grow();
+        }
+        int slot = slots++;
+        ids[slot] = albumId;
+        titles[slot] = titleKey;
+        artistNames[slot] = artistNameKey;
+        slotsById.put(albumId, slot);
+        estimatedBytes += SLOT_OVERHEAD + stringBytes(albumId) + stringBytes(titleKey) + stringBytes(artistNameKey);
+        for (long trigram : trigrams(titleKey + " " + artistNameKey)) {
+            Postings list = postings.get(trigram);
+            if (list == null) {
+                list = new Postings();
+                postings.put(trigram, list);
+                estimatedBytes += POSTINGS_OVERHEAD;
+            }
+            estimatedBytes += list.add(slot);
+        }
+    }
+
+    void remove(String albumId) {
+        Integer slot = slotsById.remove(albumId);
+        if (slot == null) {
+            return;
+        }
+        estimatedBytes -= SLOT_OVERHEAD + stringBytes(ids[slot]) + stringBytes(titles[slot]) + stringBytes(artistNames[slot]);
+        ids[slot] = null;
+        titles[slot] = null;
+        artistNames[slot] = null;
+        int dead = slots - slotsById.size();
+        if (dead > MIN_COMPACTION_SLOTS && dead > slotsById.size()) {
+            compact();
+        }
+    }
+
+    boolean contains(String albumId) {
+        return slotsById.containsKey(albumId);
+    }
+
+    int size() {
+        return slotsById.size();
+    }
+
+    long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    List<Match> search(String text, int limit) {
+        String query = normalize(text);
+        long[] queryTrigrams = trigrams(query);
+        if (queryTrigrams.length == 0) {
+            return List.of();
+        }
+        SharedCounts shared = new SharedCounts();
+        for (long trigram : queryTrigrams) {
+            Postings list = postings.get(trigram);
+            if (list != null) {
+                for (int i = 0; i < list.size; i++) {
+                    int slot = list.slots[i];
+                    if (ids[slot] != null) {
+                        shared.increment(slot);
+                    }
+                }
+            }
+        }
+        int minShared = Math.max(1, (int) Math.ceil(queryTrigrams.length * MIN_SHARED_TRIGRAMS));
+        int[][] candidates = shared.byCount(minShared, queryTrigrams.length);
+        String[] queryTokens = tokens(query);
+        List<Match> matches = new ArrayList<>();
+        int evaluated = 0;
+        for (int count = queryTrigrams.length; count >= minShared && evaluated < MAX_CANDIDATES; count--) {
+            for (int i = 0; i < candidates[count].length && evaluated < MAX_CANDIDATES; i++) {
+                int slot = candidates[count][i];
+                evaluated++;
+                double score = score(queryTokens, slot);
+                if (score > 0) {
+                    matches.add(new Match(ids[slot], score));
+                }
+            }
+        }
+        return matches.stream()
+                .sorted(Comparator.comparingDouble(Match::score).reversed().thenComparing(Match::albumId))
+                .limit(limit)
+                .toList();
+    }
+
+    private double score(String[] queryTokens, int slot) {
+        String[] fieldTokens = tokens(titles[slot] + " " + artistNames[slot]);
+        double total = 0;
+        for (String queryToken : queryTokens) {
+            double best = 0;
+            for (String fieldToken : fieldTokens) {
+                best = Math.max(best, similarity(queryToken, fieldToken));
+            }
+            total += best;
+        }
+        return total / queryTokens.length;
+    }
+
+    static double similarity(String queryToken, String fieldToken) {
+        if (queryToken.equals(fieldToken)) {
+            return 1.0;
+        }
+        if (queryToken.length() >= 2 && fieldToken.startsWith(queryToken)) {
+            return 0.9;
+        }
+        int maxEdits = queryToken.length() <= 4 ? 1 : 2;
+        if (Math.abs(queryToken.length() - fieldToken.length()) > maxEdits) {
+            return 0;
+        }
+        int distance = editDistance(queryToken, fieldToken);
+        return distance <= maxEdits ? 1.0 - (double) distance / (Math.max(queryToken.length(), fieldToken.length()) + 1) : 0;
+    }
+
+    static int editDistance(String a, String b) {
+        int[] previousPrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], previousPrevious[j - 2] + 1);
+                }
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    static long[] trigrams(String normalized) {
+        String[] tokens = tokens(normalized);
+        List<Long> trigrams = new ArrayList<>();
+        for (String token : tokens) {
+            String padded = " " + token + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2));
+            }
+        }
+        return trigrams.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+    }
+
+    private static String[] tokens(String normalized) {
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    private static String normalize(String value) {
+        String normalized = AlbumSearchKeys.normalize(value);
+        return normalized == null ? "" : normalized;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        artistNames = Arrays.copyOf(artistNames, capacity);
+        estimatedBytes += 3L * 4 * (capacity - capacity / 2);
+    }
+
+    private void compact() {
+        String[] liveIds = Arrays.copyOf(ids, slots);
+        String[] liveTitles = Arrays.copyOf(titles, slots);
+        String[] liveArtistNames = Arrays.copyOf(artistNames, slots);
+        int liveSlots = slots;
+        slotsById.clear();
+        postings.clear();
+        ids = new String[16];
+        titles = new String[16];
+        artistNames = new String[16];
+        slots = 0;
+        estimatedBytes = 0;
+        for (int slot = 0; slot < liveSlots; slot++) {
+            if (liveIds[slot] != null) {
+                put(liveIds[slot], liveTitles[slot], liveArtistNames[slot]);
+            }
+        }
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : STRING_OVERHEAD + value.length();
+    }
+
+    private static final class SharedCounts {
+
+        private int[] slots = filled(64);
+        private int[] counts = new int[64];
+        private int size;
+
+        private void increment(int slot) {
+            if ((size + 1) * 2 > slots.length) {
+                resize();
+            }
+            int mask = slots.length - 1;
+            int index = (slot * 0x9E3779B9) >>> 1 & mask;
+            while (slots[index] >= 0 && slots[index] != slot) {
+                index = (index + 1) & mask;
+            }
+            if (slots[index] < 0) {
+                slots[index] = slot;
+                size++;
+            }
+            counts[index]++;
+        }
+
+        private int[][] byCount(int minCount, int maxCount) {
+            int[][] buckets = new int[maxCount + 1][];
+            int[] sizes = new int[maxCount + 1];
+            for (int i = 0; i < slots.length; i++) {
+                int count = counts[i];
+                if (slots[i] < 0 || count < minCount) {
+                    continue;
+                }
+                int[] bucket = buckets[count];
+                if (bucket == null) {
+                    bucket = buckets[count] = new int[8];
+                } else if (sizes[count] == bucket.length) {
+                    bucket = buckets[count] = Arrays.copyOf(bucket, bucket.length * 2);
+                }
+                bucket[sizes[count]++] = slots[i];
+            }
+            for (int count = 0; count <= maxCount; count++) {
+                buckets[count] = buckets[count] == null ? new int[0] : Arrays.copyOf(buckets[count], sizes[count]);
+            }
+            return buckets;
+        }
+
+        private void resize() {
+            int[] previousSlots = slots;
+            int[] previousCounts = counts;
+            slots = filled(previousSlots.length * 2);
+            counts = new int[previousSlots.length * 2];
+            size = 0;
+            int mask = slots.length - 1;
+            for (int i = 0; i < previousSlots.length; i++) {
+                if (previousSlots[i] >= 0) {
+                    int index = (previousSlots[i] * 0x9E3779B9) >>> 1 & mask;
+                    while (slots[index] >= 0) {
+                        index = (index + 1) & mask;
+                    }
+                    slots[index] = previousSlots[i];
+                    counts[index] = previousCounts[i];
+                    size++;
+                }
+            }
+        }
+
+        private static int[] filled(int capacity) {
+            int[] slots = new int[capacity];
+            Arrays.fill(slots, -1);
+            return slots;
+        }
+    }
+
+    private static final class Postings {
+
+        private int[] slots = new int[4];
+        private int size;
+
+        private long add(int slot) {
+            long grown = 0;
+            if (size == slots.length) {
+                grown = 4L * slots.length;
+                slots = Arrays.copyOf(slots, slots.length * 2);
+            }
+            slots[size++] = slot;
+            return grown;
+        }
+    }
+}
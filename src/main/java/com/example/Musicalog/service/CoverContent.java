@@ -0,0 +1,11 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.domain.Cover;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+
+public record CoverContent(
+        Cover cover,
+        Flux<DataBuffer> content
+) {
+}
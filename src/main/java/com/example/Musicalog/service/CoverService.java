@@ -0,0 +1,176 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.Cover;
+import com.example.Musicalog.service.event.AlbumSavedEvent;
+import com.example.Musicalog.service.event.CoverDeletedEvent;
+import com.example.Musicalog.service.event.CoverStoredEvent;
+import com.example.Musicalog.service.exception.NotFoundException;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.gridfs.ReactiveGridFsTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@Service
+public class CoverService {
+
+    public static final String FILES_COLLECTION = "fs.files";
+    public static final String CHUNKS_COLLECTION = "fs.chunks";
+    public static final String HASH = "metadata.hash";
+    public static final String REFS = "metadata.refs";
+
+    private static final String CONTENT_TYPE = "contentType";
+
+    private final ReactiveGridFsTemplate gridFsTemplate;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AlbumMetrics metrics;
+
+    public CoverService(ReactiveGridFsTemplate gridFsTemplate, ReactiveMongoTemplate mongoTemplate, ApplicationEventPublisher eventPublisher, AlbumMetrics metrics) {
+        this.gridFsTemplate = gridFsTemplate;
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
+    }
+
+    public Mono<Cover> store(String albumId, Flux<DataBuffer> content, String contentType) {
+        return mongoTemplate.exists(query(where("_id").is(albumId)), Album.class)
+                .flatMap(exists -> exists
+                        ? storeContent(albumId, content, contentType)
+                        : Mono.<Cover>error(new NotFoundException("Album not found with id: %s when storing cover".formatted(albumId))));
+    }
+
+    public Mono<CoverContent> load(String albumId) {
+        return findCover(albumId)
+                .flatMap(this::loadContent)
+                .switchIfEmpty(Mono.error(new NotFoundException("Cover not found for album with id: %s".formatted(albumId))));
+    }
+
+    public Mono<CoverContent> loadByHash(String hash) {
+        return findByHash(hash)
+                .flatMap(this::loadContent)
+                .switchIfEmpty(Mono.error(new NotFoundException("Cover not found with hash: %s".formatted(hash))));
+    }
+
+    public Mono<Cover> retain(Cover cover) {
+        if (cover == null || cover.hash() == null) {
+            return Mono.empty();
+        }
+        return mongoTemplate.findAndModify(query(where(HASH).is(cover.hash())), new Update().inc(REFS, 1), Document.class, FILES_COLLECTION)
+                .map(CoverService::toCover);
+    }
+
+    public Mono<Void> release(Cover cover) {
+        if (cover == null || cover.reference() == null) {
+            return Mono.empty();
+        }
+        ObjectId fileId = new ObjectId(cover.reference());
+        Criteria referenced = where("_id").is(fileId).orOperator(where(REFS).gt(0), where(REFS).exists(false));
+        return mongoTemplate.findAndModify(query(referenced), new Update().inc(REFS, -1),
+                        FindAndModifyOptions.options().returnNew(true), Document.class, FILES_COLLECTION)
+                .filter(file -> references(file) <= 0)
+                .flatMap(file -> mongoTemplate.findAndRemove(query(where("_id").is(fileId).and(REFS).lte(0)), Document.class, FILES_COLLECTION))
+                .flatMap(removed -> mongoTemplate.remove(query(where("files_id").is(fileId)), CHUNKS_COLLECTION)
+                        .doOnSuccess(ignored -> eventPublisher.publishEvent(new CoverDeletedEvent(cover))))
+                .then();
+    }
+
+    private Mono<Cover> storeContent(String albumId, Flux<DataBuffer> content, String contentType) {
+        return Mono.defer(() -> {
+            MessageDigest digest = sha256();
+            AtomicLong size = new AtomicLong();
+            Flux<DataBuffer> hashedContent = content.doOnNext(buffer -> {
+                size.addAndGet(buffer.readableByteCount());
+                try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                    iterator.forEachRemaining(digest::update);
+                }
+            });
+
+            return gridFsTemplate.store(hashedContent, albumId, contentType, new Document(CONTENT_TYPE, contentType))
+                    .map(fileId -> new Cover(fileId.toHexString(), contentType, size.get(), HexFormat.of().formatHex(digest.digest())))
+                    .doOnNext(cover -> metrics.recordCoverSize("upload", cover.size()))
+                    .flatMap(this::deduplicate)
+                    .flatMap(cover -> attach(albumId, cover));
+        });
+    }
+
+    private Mono<Cover> deduplicate(Cover uploaded) {
+        return retain(uploaded)
+                .flatMap(existing -> deleteFile(uploaded).thenReturn(existing))
+                .switchIfEmpty(Mono.defer(() -> mongoTemplate.updateFirst(query(where("_id").is(new ObjectId(uploaded.reference()))),
+                                new Update().set(HASH, uploaded.hash()).set(REFS, 1), FILES_COLLECTION)
+                        .thenReturn(uploaded)
+                        .onErrorResume(DuplicateKeyException.class, e -> deduplicate(uploaded))));
+    }
+
+    private Mono<Cover> attach(String albumId, Cover cover) {
+        return mongoTemplate.findAndModify(query(where("_id").is(albumId)), new Update().set("cover", cover).inc("version", 1), Album.class)
+                .doOnNext(previous -> eventPublisher.publishEvent(new AlbumSavedEvent(new Album(previous.id(), previous.title(), previous.artistName(),
+                        previous.type(), previous.stock(), cover, previous.version() == null ? 1L : previous.version() + 1))))
+                .doOnNext(previous -> eventPublisher.publishEvent(new CoverStoredEvent(albumId, cover)))
+                .flatMap(previous -> release(previous.cover()).thenReturn(cover))
+                .switchIfEmpty(release(cover)
+                        .then(Mono.<Cover>error(new NotFoundException("Album not found with id: %s when storing cover".formatted(albumId)))));
+    }
+
+    private Mono<Cover> findCover(String albumId) {
+        Query query = query(where("_id").is(albumId));
+        query.fields().include("cover");
+        return mongoTemplate.findOne(query, Album.class)
+                .mapNotNull(Album::cover);
+    }
+
+    private Mono<Cover> findByHash(String hash) {
+        return mongoTemplate.findOne(query(where(HASH).is(hash)), Document.class, FILES_COLLECTION)
+                .map(CoverService::toCover);
+    }
+
+    private Mono<CoverContent> loadContent(Cover cover) {
+        return gridFsTemplate.findOne(query(where("_id").is(new ObjectId(cover.reference()))))
+                .flatMap(gridFsTemplate::getResource)
+                .map(resource -> new CoverContent(cover, resource.getDownloadStream()))
+                .doOnNext(coverContent -> metrics.recordCoverSize("download", cover.size()));
+    }
+
+    private Mono<Void> deleteFile(Cover cover) {
+        return gridFsTemplate.delete(query(where("_id").is(new ObjectId(cover.reference()))));
+    }
+
+    private static Cover toCover(Document file) {
+        Document metadata = file.get("metadata", Document.class);
+        return new Cover(file.getObjectId("_id").toHexString(), metadata.getString(CONTENT_TYPE),
+                ((Number) file.get("length")).longValue(), metadata.getString("hash"));
+    }
+
+    private static long references(Document file) {
+        Document metadata = file.get("metadata", Document.class);
+        Object refs = metadata == null ? null : metadata.get("refs");
+        return refs instanceof Number number ? number.longValue() : 0L;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,579 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.repository.AlbumSearchKeys;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Suggests terms by prefix, heaviest first. Terms live in a shared char pool and in parallel primitive arrays indexed by a
+ * stable term id, kept sorted by normalized key with a max segment tree over their weights, so a lookup is a binary search
+ * plus {@code limit} range-maximum queries. New terms are buffered until {@link #MAX_PENDING} of them are merged in at once.
+ * <p>
+ * Not thread-safe: {@link #add}, {@link #remove}, {@link #beginMerge()} and {@link Merge#publish()} must be called under
+ * an exclusive lock, while {@link #suggest} and the other lookups only read and may run concurrently with each other under
+ * the shared side of that lock. {@link Merge#build()} runs without any lock, see {@link Merge} for what that relies on.
+ * Lookups keep using the previous arrays until the merged ones are published.
+ */
+final class PrefixSuggester {
+
+    static final int NONE = -1;
+    static final int MAX_PENDING = 4_096;
+
+    private char[] chars = new char[1_024];
+    private int charCount;
+    private int garbageChars;
+
+    private int[] keyStarts = new int[16];
+    private int[] keyLengths = new int[16];
+    private int[] textLengths = new int[16];
+    private long[] weights = new long[16];
+    private int[] albums = new int[16];
+    private int terms;
+    private int[] free = new int[0];
+    private int freeCount;
+
+    private int[] table = new int[32];
+    private int tableTerms;
+
+    private int[] sorted = new int[0];
+    private long[] ranked = new long[0];
+    private int[] tree = new int[0];
+    private int[] pending = new int[16];
+    private int pendingSize;
+    private int deadSorted;
+    private int live;
+    private boolean bulkLoading;
+    private Merge merge;
+
+    int add(String text, long weight) {
+        String key = normalize(text);
+        if (key.isEmpty()) {
+            return NONE;
+        }
+        int term = find(key);
+        if (term == NONE) {
+            term = insert(key, text.trim());
+        }
+        int position = locate(term);
+        if (albums[term]++ == 0) {
+            live++;
+            if (position != NONE) {
+                deadSorted--;
+            }
+        }
+        weights[term] += weight;
+        changed(position, term);
+        return term;
+    }
+
+    void remove(int term, long weight) {
+        if (term == NONE) {
+            return;
+        }
+        int position = locate(term);
+        weights[term] -= weight;
+        if (--albums[term] == 0) {
+            live--;
+            weights[term] = 0;
+            if (position != NONE) {
+                deadSorted++;
+            }
+        }
+        changed(position, term);
+    }
+
+    List<String> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<Integer> candidates = new ArrayList<>(limit + 8);
+        int from = bound(key, false);
+        int to = bound(key, true);
+        PriorityQueue<int[]> ranges = new PriorityQueue<>(limit * 2 + 1, (a, b) -> a[2] == b[2] ? 0 : better(ranked, a[2], b[2]) == a[2] ? -1 : 1);
+        offer(ranges, from, to);
+        while (candidates.size() < limit && !ranges.isEmpty()) {
+            int[] range = ranges.poll();
+            int position = range[2];
+            candidates.add(sorted[position]);
+            offer(ranges, range[0], position);
+            offer(ranges, position + 1, range[1]);
+        }
+        for (int i = 0; i < pendingSize; i++) {
+            int term = pending[i];
+            if (albums[term] > 0 && comparePrefix(term, key) == 0) {
+                candidates.add(term);
+            }
+        }
+        return candidates.stream()
+                .sorted((a, b) -> a.intValue() == b.intValue() ? 0 : heavier(a, b) ? -1 : 1)
+                .limit(limit)
+                .map(this::text)
+                .toList();
+    }
+
+    void beginBulkLoad() {
+        bulkLoading = true;
+    }
+
+    void endBulkLoad() {
+        bulkLoading = false;
+    }
+
+    int size() {
+        return live;
+    }
+
+    long estimatedBytes() {
+        return 2L * chars.length
+                + 4L * (keyStarts.length + keyLengths.length + textLengths.length + albums.length)
+                + 8L * (weights.length + ranked.length)
+                + 4L * (free.length + table.length + sorted.length + tree.length + pending.length);
+    }
+
+    boolean needsMerge() {
+        return merge == null && !bulkLoading
+                && (pendingSize >= MAX_PENDING || (deadSorted >= MAX_PENDING && deadSorted * 4 >= sorted.length));
+    }
+
+    /**
+     * Starts merging the pending terms into the sorted ones and dropping dead terms, or returns {@code null} if a merge
+     * is already running or there is nothing to merge.
+     */
+    Merge beginMerge() {
+        if (merge != null || (pendingSize == 0 && deadSorted == 0)) {
+            return null;
+        }
+        merge = new Merge();
+        return merge;
+    }
+
+    void flush() {
+        Merge started = beginMerge();
+        if (started != null) {
+            started.build();
+            started.publish();
+        }
+    }
+
+    private int insert(String key, String text) {
+        int term;
+        if (freeCount > 0) {
+            term = free[--freeCount];
+        } else {
+            if (terms == keyStarts.length) {
+                growTerms();
+            }
+            term = terms++;
+        }
+        ensureChars(key.length() + text.length());
+        keyStarts[term] = charCount;
+        key.getChars(0, key.length(), chars, charCount);
+        text.getChars(0, text.length(), chars, charCount + key.length());
+        charCount += key.length() + text.length();
+        keyLengths[term] = key.length();
+        textLengths[term] = text.length();
+        weights[term] = 0;
+        albums[term] = 0;
+        appendPending(term);
+        index(term);
+        return term;
+    }
+
+    private void release(int term) {
+        garbageChars += keyLengths[term] + textLengths[term];
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, Math.max(16, freeCount * 2));
+        }
+        free[freeCount++] = term;
+    }
+
+    private void appendPending(int term) {
+        if (pendingSize == pending.length) {
+            pending = Arrays.copyOf(pending, pendingSize * 2);
+        }
+        pending[pendingSize++] = term;
+    }
+
+    private void changed(int position, int term) {
+        if (merge != null) {
+            merge.record(term);
+        }
+        if (position == NONE) {
+            return;
+        }
+        ranked[position] = weight(term);
+        for (int node = (sorted.length + position) / 2; node > 0; node /= 2) {
+            tree[node] = better(ranked, tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    private void offer(PriorityQueue<int[]> ranges, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int best = NONE;
+        for (int left = from + sorted.length, right = to + sorted.length; left < right; left /= 2, right /= 2) {
+            if ((left & 1) == 1) {
+                best = better(ranked, best, tree[left++]);
+            }
+            if ((right & 1) == 1) {
+                best = better(ranked, best, tree[--right]);
+            }
+        }
+        if (ranked[best] >= 0) {
+            ranges.add(new int[]{from, to, best});
+        }
+    }
+
+    private static int better(long[] ranked, int position, int other) {
+        if (position == NONE) {
+            return other;
+        }
+        if (other == NONE) {
+            return position;
+        }
+        if (ranked[position] != ranked[other]) {
+            return ranked[position] > ranked[other] ? position : other;
+        }
+        return Math.min(position, other);
+    }
+
+    private boolean heavier(int term, int other) {
+        long weight = weight(term);
+        long otherWeight = weight(other);
+        return weight != otherWeight ? weight > otherWeight : compareKeys(term, other) < 0;
+    }
+
+    private long weight(int term) {
+        return albums[term] > 0 ? weights[term] : -1;
+    }
+
+    private int locate(int term) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareKeys(sorted[middle], term) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low < sorted.length && sorted[low] == term ? low : NONE;
+    }
+
+    private int bound(String prefix, boolean after) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = comparePrefix(sorted[middle], prefix);
+            if (comparison < 0 || (after && comparison == 0)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int comparePrefix(int term, String prefix) {
+        int start = keyStarts[term];
+        int length = Math.min(keyLengths[term], prefix.length());
+        for (int i = 0; i < length; i++) {
+            int difference = chars[start + i] - prefix.charAt(i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return keyLengths[term] >= prefix.length() ? 0 : -1;
+    }
+
+    private int compareKeys(int term, int other) {
+        return compareKeys(chars, keyStarts, keyLengths, term, other);
+    }
+
+    private static int compareKeys(char[] chars, int[] keyStarts, int[] keyLengths, int term, int other) {
+        int start = keyStarts[term];
+        int otherStart = keyStarts[other];
+        int length = Math.min(keyLengths[term], keyLengths[other]);
+        for (int i = 0; i < length; i++) {
+            int difference = chars[start + i] - chars[otherStart + i];
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return keyLengths[term] - keyLengths[other];
+    }
+
+    private String text(int term) {
+        return new String(chars, keyStarts[term] + keyLengths[term], textLengths[term]);
+    }
+
+    private int find(String key) {
+        int mask = table.length - 1;
+        for (int slot = spread(key.hashCode()) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int term = table[slot] - 1;
+            if (keyLengths[term] == key.length() && comparePrefix(term, key) == 0) {
+                return term;
+            }
+        }
+        return NONE;
+    }
+
+    private void index(int term) {
+        if ((tableTerms + 1) * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        place(table, term, hash(chars, keyStarts[term], keyLengths[term]));
+        tableTerms++;
+    }
+
+    private static void place(int[] table, int term, int hash) {
+        int mask = table.length - 1;
+        int slot = spread(hash) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = term + 1;
+    }
+
+    private void rehash(int capacity) {
+        int[] previous = table;
+        table = new int[capacity];
+        tableTerms = 0;
+        for (int entry : previous) {
+            if (entry != 0) {
+                place(table, entry - 1, hash(chars, keyStarts[entry - 1], keyLengths[entry - 1]));
+                tableTerms++;
+            }
+        }
+    }
+
+    private static int hash(char[] chars, int start, int length) {
+        int hash = 0;
+        for (int i = start, end = start + length; i < end; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        return hash;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private void ensureChars(int length) {
+        if (charCount + length > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charCount + length));
+        }
+    }
+
+    private void growTerms() {
+        int capacity = keyStarts.length * 2;
+        keyStarts = Arrays.copyOf(keyStarts, capacity);
+        keyLengths = Arrays.copyOf(keyLengths, capacity);
+        textLengths = Arrays.copyOf(textLengths, capacity);
+        weights = Arrays.copyOf(weights, capacity);
+        albums = Arrays.copyOf(albums, capacity);
+    }
+
+    private static String normalize(String value) {
+        String normalized = AlbumSearchKeys.normalize(value);
+        return normalized == null ? "" : normalized;
+    }
+
+    /**
+     * A merge of the pending terms into the sorted ones. Terms changed while it is being built are recorded and replayed
+     * onto the merged arrays when they are published, and dropped terms that were added again meanwhile go back to pending.
+     * <p>
+     * {@link #build()} reads the captured term arrays off-lock while writers keep updating {@code albums}, {@code weights}
+     * and {@code ranked} in place, so it may see stale or even torn values for any term changed after {@link #beginMerge()}.
+     * That is harmless only because every such change goes through {@code changed}, which records the term here, and
+     * {@link #publish()} recomputes the rank of each recorded term from the live arrays and re-pends dropped terms that
+     * are live again. Anything else the build reads is never written while it runs: key and text characters are
+     * append-only, and a term id is only reused after a merge has released it. Any new in-place write during a merge must
+     * keep recording the term.
+     */
+    final class Merge {
+
+        private final int[] previousSorted = sorted;
+        private final long[] previousRanked = ranked;
+        private final int[] fresh = Arrays.copyOf(pending, pendingSize);
+        private final char[] mergedChars = chars;
+        private final int mergedCharCount = charCount;
+        private final int mergedGarbageChars = garbageChars;
+        private final int[] mergedKeyStarts = keyStarts;
+        private final int[] mergedKeyLengths = keyLengths;
+        private final int[] mergedTextLengths = textLengths;
+        private final long[] mergedTermWeights = weights;
+        private final int[] mergedAlbums = albums;
+
+        private int[] changedTerms = new int[16];
+        private int changedCount;
+        private int[] dropped = new int[16];
+        private int droppedCount;
+        private int droppedChars;
+
+        private int[] mergedSorted;
+        private long[] mergedRanked;
+        private int[] mergedTree;
+        private int[] mergedTable;
+        private char[] compactedChars;
+        private int[] compactedStarts;
+        private int compactedCount;
+
+        void build() {
+            int[] kept = new int[fresh.length];
+            int keptCount = 0;
+            for (int term : fresh) {
+                if (mergedAlbums[term] > 0) {
+                    kept[keptCount++] = term;
+                } else {
+                    drop(term);
+                }
+            }
+            kept = Arrays.stream(kept, 0, keptCount).boxed()
+                    .sorted((term, other) -> compareKeys(mergedChars, mergedKeyStarts, mergedKeyLengths, term, other))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            int[] mergedTerms = new int[previousSorted.length + keptCount];
+            long[] mergedWeights = new long[mergedTerms.length];
+            int size = 0;
+            int from = 0;
+            for (int j = 0; j <= keptCount; j++) {
+                int to = j < keptCount ? insertionPoint(kept[j], from) : previousSorted.length;
+                for (int i = from; i < to; i++) {
+                    long weight = previousRanked[i];
+                    if (weight < 0) {
+                        drop(previousSorted[i]);
+                    } else {
+                        mergedTerms[size] = previousSorted[i];
+                        mergedWeights[size++] = weight;
+                    }
+                }
+                if (j < keptCount) {
+                    mergedTerms[size] = kept[j];
+                    mergedWeights[size++] = mergedTermWeights[kept[j]];
+                }
+                from = to;
+            }
+            mergedSorted = Arrays.copyOf(mergedTerms, size);
+            mergedRanked = Arrays.copyOf(mergedWeights, size);
+            mergedTree = new int[2 * size];
+            for (int position = 0; position < size; position++) {
+                mergedTree[size + position] = position;
+            }
+            for (int node = size - 1; node > 0; node--) {
+                mergedTree[node] = better(mergedRanked, mergedTree[2 * node], mergedTree[2 * node + 1]);
+            }
+            if (droppedCount > 0) {
+                mergedTable = new int[Math.max(32, Integer.highestOneBit(size * 2 + 1) * 2)];
+                for (int term : mergedSorted) {
+                    place(mergedTable, term, hash(mergedChars, mergedKeyStarts[term], mergedKeyLengths[term]));
+                }
+            }
+            if (mergedGarbageChars + droppedChars > mergedCharCount / 2) {
+                compactedChars = new char[Math.max(1_024, (mergedCharCount - mergedGarbageChars - droppedChars) * 5 / 4)];
+                compactedStarts = mergedKeyStarts.clone();
+                for (int term : mergedSorted) {
+                    int length = mergedKeyLengths[term] + mergedTextLengths[term];
+                    System.arraycopy(mergedChars, mergedKeyStarts[term], compactedChars, compactedCount, length);
+                    compactedStarts[term] = compactedCount;
+                    compactedCount += length;
+                }
+            }
+        }
+
+        void publish() {
+            sorted = mergedSorted;
+            ranked = mergedRanked;
+            tree = mergedTree;
+            deadSorted = 0;
+            merge = null;
+            for (int i = 0; i < changedCount; i++) {
+                int term = changedTerms[i];
+                int position = locate(term);
+                if (position != NONE) {
+                    if (ranked[position] >= 0 && albums[term] == 0) {
+                        deadSorted++;
+                    } else if (ranked[position] < 0 && albums[term] > 0) {
+                        deadSorted--;
+                    }
+                    changed(position, term);
+                }
+            }
+            pendingSize -= fresh.length;
+            System.arraycopy(pending, fresh.length, pending, 0, pendingSize);
+            for (int i = 0; i < droppedCount; i++) {
+                int term = dropped[i];
+                if (albums[term] > 0) {
+                    appendPending(term);
+                } else {
+                    release(term);
+                }
+            }
+            if (compactedChars != null) {
+                char[] previousChars = chars;
+                int[] previousStarts = keyStarts;
+                chars = compactedChars;
+                charCount = compactedCount;
+                garbageChars = 0;
+                keyStarts = Arrays.copyOf(compactedStarts, previousStarts.length);
+                for (int i = 0; i < pendingSize; i++) {
+                    int term = pending[i];
+                    int length = keyLengths[term] + textLengths[term];
+                    ensureChars(length);
+                    System.arraycopy(previousChars, previousStarts[term], chars, charCount, length);
+                    keyStarts[term] = charCount;
+                    charCount += length;
+                }
+            }
+            if (mergedTable != null) {
+                table = mergedTable;
+                tableTerms = sorted.length;
+                for (int i = 0; i < pendingSize; i++) {
+                    index(pending[i]);
+                }
+            }
+        }
+
+        void abort() {
+            if (merge == this) {
+                merge = null;
+            }
+        }
+
+        private void record(int term) {
+            if (changedCount == changedTerms.length) {
+                changedTerms = Arrays.copyOf(changedTerms, changedCount * 2);
+            }
+            changedTerms[changedCount++] = term;
+        }
+
+        private void drop(int term) {
+            if (droppedCount == dropped.length) {
+                dropped = Arrays.copyOf(dropped, droppedCount * 2);
+            }
+            dropped[droppedCount++] = term;
+            droppedChars += mergedKeyLengths[term] + mergedTextLengths[term];
+        }
+
+        private int insertionPoint(int term, int from) {
+            int low = from;
+            int high = previousSorted.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compareKeys(mergedChars, mergedKeyStarts, mergedKeyLengths, previousSorted[middle], term) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.domain.Cover;
+import com.example.Musicalog.service.event.CoverDeletedEvent;
+import com.example.Musicalog.service.event.CoverStoredEvent;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.ReactiveGridFsTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+public class ThumbnailService {
+
+    private static final Logger log = LoggerFactory.getLogger(ThumbnailService.class);
+
+    private static final String THUMBNAIL_OF = "thumbnailOf";
+    private static final String SIZE = "size";
+    private static final int MAX_COVER_BYTES = 32 * 1024 * 1024;
+
+    private final ReactiveGridFsTemplate gridFsTemplate;
+    private final Scheduler scheduler;
+    private final List<Integer> sizes;
+
+    public ThumbnailService(ReactiveGridFsTemplate gridFsTemplate, Scheduler scheduler, List<Integer> sizes) {
+        this.gridFsTemplate = gridFsTemplate;
+        this.scheduler = scheduler;
+        this.sizes = List.copyOf(sizes);
+    }
+
+    @EventListener
+    public void onCoverStored(CoverStoredEvent event) {
+        generate(event.cover())
+                .subscribe(
+                        ignored -> { },
+                        error -> log.warn("Could not generate thumbnails for album {}", event.albumId(), error));
+    }
+
+    @EventListener
+    public void onCoverDeleted(CoverDeletedEvent event) {
+        gridFsTemplate.delete(thumbnails(event.cover().hash()))
+                .subscribe(
+                        ignored -> { },
+                        error -> log.warn("Could not remove thumbnails of cover {}", event.cover().hash(), error));
+    }
+
+    public Mono<Void> generate(Cover cover) {
+        return gridFsTemplate.find(thumbnails(cover.hash())).hasElements()
+                .filter(exists -> !exists)
+                .flatMap(ignored -> loadOriginal(cover))
+                .publishOn(scheduler)
+                .map(Thumbnails::decode)
+                .flatMapMany(image -> Flux.fromIterable(sizes)
+                        .concatMap(size -> store(cover, size, image)))
+                .then();
+    }
+
+    public Mono<CoverContent> load(String coverHash, int size) {
+        if (!sizes.contains(size)) {
+            return Mono.empty();
+        }
+        return gridFsTemplate.find(thumbnails(coverHash).addCriteria(where("metadata." + SIZE).is(size))).next()
+                .flatMap(file -> gridFsTemplate.getResource(file)
+                        .map(resource -> new CoverContent(
+                                new Cover(file.getObjectId().toHexString(), Thumbnails.CONTENT_TYPE, file.getLength(), coverHash),
+                                resource.getDownloadStream())));
+    }
+
+    private Mono<byte[]> loadOriginal(Cover cover) {
+        return gridFsTemplate.findOne(query(where("_id").is(new ObjectId(cover.reference()))))
+                .flatMap(gridFsTemplate::getResource)
+                .flatMap(resource -> DataBufferUtils.join(resource.getDownloadStream(), MAX_COVER_BYTES))
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                });
+    }
+
+    private Mono<ObjectId> store(Cover cover, int size, BufferedImage image) {
+        return Mono.fromCallable(() -> Thumbnails.scale(image, size))
+                .subscribeOn(scheduler)
+                .flatMap(thumbnail -> gridFsTemplate.store(
+                        Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(thumbnail)),
+                        "%s-%d".formatted(cover.hash(), size),
+                        Thumbnails.CONTENT_TYPE,
+                        new Document(THUMBNAIL_OF, cover.hash()).append(SIZE, size)));
+    }
+
+    private static Query thumbnails(String coverHash) {
+        return query(where("metadata." + THUMBNAIL_OF).is(coverHash));
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.Musicalog.service.event;
+
+public record AlbumRemovedEvent(String albumId) {
+}
@@ -0,0 +1,6 @@
+package com.example.Musicalog.service.event;
+
+import com.example.Musicalog.domain.Album;
+
+public record AlbumSavedEvent(Album album) {
+}
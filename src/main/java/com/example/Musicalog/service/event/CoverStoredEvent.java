@@ -0,0 +1,6 @@
+package com.example.Musicalog.service.event;
+
+import com.example.Musicalog.domain.Cover;
+
+public record CoverStoredEvent(String albumId, Cover cover) {
+}
@@ -0,0 +1,8 @@
+package com.example.Musicalog.service.exception;
+
+public class ConflictException extends Exception {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
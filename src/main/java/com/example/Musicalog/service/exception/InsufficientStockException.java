@@ -0,0 +1,8 @@
+package com.example.Musicalog.service.exception;
+
+public class InsufficientStockException extends Exception {
+
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.Musicalog.service.exception;
+
+public class PreconditionFailedException extends Exception {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -1,8 +1,22 @@
 package com.example.Musicalog.controller;
 
 import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.AlbumFacets;
+import com.example.Musicalog.domain.AlbumImportResult;
+import com.example.Musicalog.domain.AlbumPage;
+import com.example.Musicalog.domain.AlbumPatch;
+import com.example.Musicalog.domain.AlbumSummary;
+import com.example.Musicalog.domain.Cover;
+import com.example.Musicalog.domain.FacetCount;
+import com.example.Musicalog.domain.StockLevel;
 import com.example.Musicalog.domain.MediaType;
+import com.example.Musicalog.repository.AlbumIndexes;
 import com.example.Musicalog.repository.AlbumRepository;
+import com.example.Musicalog.service.AlbumCache;
+import com.example.Musicalog.service.AlbumService;
+import com.example.Musicalog.service.exception.InsufficientStockException;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,14 +25,23 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.testcontainers.containers.MongoDBContainer;
 import org.testcontainers.utility.DockerImageName;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
 
 @SpringBootTest
 @AutoConfigureWebTestClient
@@ -43,6 +66,18 @@ public class AlbumControllerIntegrationTest {
     @Autowired
     private AlbumRepository albumRepository;
 
+    @Autowired
+    private AlbumIndexes albumIndexes;
+
+    @Autowired
+    private AlbumService albumService;
+
+    @Autowired
+    private AlbumCache albumCache;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
     @BeforeAll
     public static void setUpMongoDBContainer() {
         mongoDBContainer = new MongoDBContainer(DockerImageName.parse("mongo:latest"));
@@ -59,6 +94,10 @@ public class AlbumControllerIntegrationTest {
 
     @BeforeEach
     public void setUp() {
+        albumIndexes.ensureIndexes().block();
+        albumRepository.deleteAll().block();
+        albumCache.invalidate(ID1);
+        albumCache.invalidate(ID2);
         insertSampleAlbums();
     }
 
@@ -78,6 +117,145 @@ public class AlbumControllerIntegrationTest {
                 });
     }
 
+    @Test
+    public void testStreamAllAlbums_Ndjson() {
+        webTestClient.get().uri("/api/album/all")
+                .accept(org.springframework.http.MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Album.class)
+                .getResponseBody()
+                .map(Album::id)
+                .collectList()
+                .as(StepVerifier::create)
+                .assertNext(ids -> assertThat(ids).contains(ID1, ID2))
+                .verifyComplete();
+    }
+
+    @Test
+    public void testGetAllAlbumSummaries() {
+        webTestClient.get().uri("/api/album/all?view=summary")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(AlbumSummary.class)
+                .consumeWith(response -> {
+                    List<AlbumSummary> summaries = response.getResponseBody();
+                    assert summaries != null;
+                    var summaryFound = summaries.stream().filter(summary -> summary.id().equals(ID1)).findAny().orElse(null);
+                    assertThat(summaryFound).isNotNull();
+                    assertThat(summaryFound.title()).isEqualTo(TITLE1);
+                    assertThat(summaryFound.artistName()).isEqualTo(ARTIST1);
+                });
+    }
+
+    @Test
+    public void testSearchAlbums_ByTitlePrefix() {
+        webTestClient.get().uri(uriBuilder -> uriBuilder
+                        .path("/api/album/search/title")
+                        .queryParam("prefix", "ÁLBUM TITLE R")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Album.class)
+                .consumeWith(response -> {
+                    List<Album> albums = response.getResponseBody();
+                    assert albums != null;
+                    assertThat(albums).extracting(Album::id).containsExactly(ID1);
+                });
+    }
+
+    @Test
+    public void testSearchAlbums_ByArtistPrefix_NotFound() {
+        webTestClient.get().uri(uriBuilder -> uriBuilder
+                        .path("/api/album/search/artist")
+                        .queryParam("prefix", "Pop")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Album.class)
+                .consumeWith(response -> assertThat(response.getResponseBody()).isEmpty());
+    }
+
+    @Test
+    public void testSearchAlbums_ByText() {
+        webTestClient.get().uri(uriBuilder -> uriBuilder
+                        .path("/api/album/search")
+                        .queryParam("text", "pop")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Album.class)
+                .consumeWith(response -> {
+                    List<Album> albums = response.getResponseBody();
+                    assert albums != null;
+                    assertThat(albums).extracting(Album::id).containsExactly(ID2);
+                });
+    }
+
+    @Test
+    public void testGetAlbumPages_ByTitle() {
+        AlbumPage firstPage = webTestClient.get().uri(uriBuilder -> uriBuilder
+                        .path("/api/album/page/title")
+                        .queryParam("title", "Album Title")
+                        .queryParam("limit", 1)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AlbumPage.class)
+                .returnResult()
+                .getResponseBody();
+
+        assert firstPage != null;
+        assertThat(firstPage.albums()).extracting(Album::id).containsExactly(ID1);
+        assertThat(firstPage.next()).isNotNull();
+
+        webTestClient.get().uri(uriBuilder -> uriBuilder
+                        .path("/api/album/page/title")
+                        .queryParam("title", "Album Title")
+                        .queryParam("limit", 1)
+                        .queryParam("after", firstPage.next())
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AlbumPage.class)
+                .consumeWith(response -> {
+                    AlbumPage page = response.getResponseBody();
+                    assert page != null;
+                    assertThat(page.albums()).extracting(Album::id).containsExactly(ID2);
+                });
+    }
+
+    @Test
+    public void testGetAlbumPages_MixedIdTypes() {
+        String objectId = new ObjectId().toHexString();
+        String objectId2 = new ObjectId().toHexString();
+        albumRepository.save(new Album(objectId, TITLE3, ARTIST3, MediaType.CD, STOCK, null, null)).block();
+        albumRepository.save(new Album("ZAlbumId", TITLE3, ARTIST3, MediaType.CD, STOCK, null, null)).block();
+        albumRepository.save(new Album(objectId2, TITLE3, ARTIST3, MediaType.CD, STOCK, null, null)).block();
+        assertThat(mongoTemplate.count(new Query(where("_id").type(JsonSchemaObject.Type.objectIdType())), Album.class).block()).isEqualTo(2);
+
+        List<String> ids = new ArrayList<>();
+        String after = null;
+        do {
+            String cursor = after;
+            AlbumPage page = webTestClient.get().uri(uriBuilder -> uriBuilder
+                            .path("/api/album/page")
+                            .queryParam("limit", 2)
+                            .queryParamIfPresent("after", Optional.ofNullable(cursor))
+                            .build())
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(AlbumPage.class)
+                    .returnResult()
+                    .getResponseBody();
+            assert page != null;
+            page.albums().forEach(album -> ids.add(album.id()));
+            after = page.next();
+        } while (after != null);
+
+        assertThat(ids).containsExactly(ID1, ID2, "ZAlbumId", objectId, objectId2);
+    }
+
     @Test
     public void testGetAllAlbums_ByTitle() {
         webTestClient.get().uri(uriBuilder -> uriBuilder
@@ -165,7 +343,7 @@ public class AlbumControllerIntegrationTest {
     @Test
     public void testUpdateAlbum() {
         webTestClient.put().uri("/api/album/update")
-                .bodyValue(new Album(ID2, TITLE3, ARTIST3, MediaType.CD, STOCK, null))
+                .bodyValue(new Album(ID2, TITLE3, ARTIST3, MediaType.CD, STOCK, null, null))
                 .exchange()
                 .expectStatus().isOk()
                 .expectBody(Album.class)
@@ -178,14 +356,432 @@ public class AlbumControllerIntegrationTest {
                 });
     }
 
+    @Test
+    public void testUpdateAlbum_Unversioned() {
+        mongoTemplate.insert(new Document("_id", "Album5")
+                        .append("title", TITLE1)
+                        .append("artistName", ARTIST1)
+                        .append("type", MediaType.CD.name())
+                        .append("stock", STOCK), "album")
+                .block();
+
+        webTestClient.put().uri("/api/album/update")
+                .bodyValue(new Album("Album5", TITLE3, ARTIST3, MediaType.CD, STOCK, null, null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody(Album.class)
+                .consumeWith(response -> assertThat(response.getResponseBody().title()).isEqualTo(TITLE3));
+    }
+
+    @Test
+    public void testSaveAlbum_WithVersion() {
+        webTestClient.post().uri("/api/album/save")
+                .bodyValue(new Album(ID2, TITLE3, ARTIST3, MediaType.CD, STOCK, null, 0L))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        albumRepository.findById(ID2)
+                .as(StepVerifier::create)
+                .expectNextMatches(album -> album.title().equals(TITLE2))
+                .verifyComplete();
+    }
+
     @Test
     public void testUpdateAlbum_NotFound() {
         webTestClient.put().uri("/api/album/update")
-                .bodyValue(new Album("Album5", TITLE3, ARTIST3, MediaType.CD, STOCK, null) )
+                .bodyValue(new Album("Album5", TITLE3, ARTIST3, MediaType.CD, STOCK, null, null) )
                 .exchange()
                 .expectStatus().isNotFound();
     }
 
+    @Test
+    public void testUpdateAlbum_IfMatch() {
+        String eTag = webTestClient.get().uri("/api/album/{id}", ID2)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Album.class)
+                .getResponseHeaders()
+                .getETag();
+        assertThat(eTag).isEqualTo("\"0\"");
+
+        webTestClient.put().uri("/api/album/update")
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .bodyValue(new Album(ID2, TITLE3, ARTIST3, MediaType.CD, STOCK, null, null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"");
+
+        webTestClient.put().uri("/api/album/update")
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .bodyValue(new Album(ID2, TITLE1, ARTIST1, MediaType.CD, STOCK, null, null))
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        webTestClient.get().uri("/api/album/{id}", ID2)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1\"")
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    public void testDeleteAlbum_IfMatch() {
+        webTestClient.delete().uri("/api/album/{id}", ID2)
+                .header(HttpHeaders.IF_MATCH, "\"7\"")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        webTestClient.delete().uri("/api/album/{id}", ID2)
+                .header(HttpHeaders.IF_MATCH, "W/\"0\"")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        webTestClient.delete().uri("/api/album/{id}", ID2)
+                .header(HttpHeaders.IF_MATCH, "\"7\", \"0\"")
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    public void testUploadAndGetCover() {
+        byte[] image = new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+
+        webTestClient.put().uri("/api/album/{id}/cover", ID1)
+                .contentType(org.springframework.http.MediaType.IMAGE_PNG)
+                .bodyValue(image)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Cover.class)
+                .consumeWith(response -> {
+                    Cover cover = response.getResponseBody();
+                    assert cover != null;
+                    assertThat(cover.size()).isEqualTo(image.length);
+                    assertThat(cover.contentType()).isEqualTo("image/png");
+                });
+
+        webTestClient.get().uri("/api/album/{id}/cover", ID1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType("image/png")
+                .expectBody(byte[].class).isEqualTo(image);
+
+        webTestClient.get().uri("/api/album/{id}", ID1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Album.class)
+                .consumeWith(response -> {
+                    Album album = response.getResponseBody();
+                    assert album != null;
+                    assertThat(album.cover()).isNotNull();
+                    assertThat(album.cover().size()).isEqualTo(image.length);
+                });
+    }
+
+    @Test
+    public void testUploadSharedCover() {
+        byte[] image = new byte[]{42, 43, 44, 45, 46, 47, 48, 49};
+
+        Cover cover1 = uploadCover(ID1, image);
+        Cover cover2 = uploadCover(ID2, image);
+        assertThat(cover2.reference()).isEqualTo(cover1.reference());
+        assertThat(cover2.hash()).isEqualTo(cover1.hash());
+
+        webTestClient.delete().uri("/api/album/{id}", ID1)
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get().uri("/api/album/cover/{hash}", cover1.hash())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class).isEqualTo(image);
+
+        webTestClient.delete().uri("/api/album/{id}", ID2)
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get().uri("/api/album/cover/{hash}", cover1.hash())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void testGetCover_NotFound() {
+        webTestClient.get().uri("/api/album/{id}/cover", ID2)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void testImportAlbums() {
+        String body = """
+                {"id": "ImportedAlbumId", "title": "Imported Title", "artistName": "Imported Artist", "type": "CD", "stock": 5}
+                {"id": "AlbumId", "title": "Duplicate Title", "artistName": "Duplicate Artist", "type": "CD", "stock": 5}
+                """;
+
+        webTestClient.post().uri("/api/album/import")
+                .contentType(org.springframework.http.MediaType.APPLICATION_NDJSON)
+                .accept(org.springframework.http.MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(AlbumImportResult.class)
+                .consumeWith(response -> {
+                    List<AlbumImportResult> results = response.getResponseBody();
+                    assert results != null;
+                    assertThat(results).hasSize(1);
+                    assertThat(results.get(0).inserted()).isEqualTo(1);
+                    assertThat(results.get(0).failed()).isEqualTo(1);
+                    assertThat(results.get(0).errors().get(0).albumId()).isEqualTo(ID1);
+                });
+
+        albumRepository.findById("ImportedAlbumId")
+                .as(StepVerifier::create)
+                .expectNextMatches(album -> album.title().equals("Imported Title"))
+                .verifyComplete();
+        albumRepository.deleteById("ImportedAlbumId").block();
+    }
+
+    @Test
+    public void testImportAlbums_MalformedLine() {
+        String body = """
+                {"id": "ImportedAlbumId", "title": "Imported Title", "artistName": "Imported Artist", "type": "CD", "stock": 5}
+                {"id": "BrokenAlbumId", "title": "Broken
+                {"id": "ImportedAlbumId2", "title": "Imported Title 2", "artistName": "Imported Artist", "type": "CD", "stock": 5}
+                """;
+
+        webTestClient.post().uri("/api/album/import")
+                .contentType(org.springframework.http.MediaType.APPLICATION_NDJSON)
+                .accept(org.springframework.http.MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(AlbumImportResult.class)
+                .consumeWith(response -> {
+                    List<AlbumImportResult> results = response.getResponseBody();
+                    assert results != null;
+                    assertThat(results).hasSize(1);
+                    assertThat(results.get(0).received()).isEqualTo(3);
+                    assertThat(results.get(0).inserted()).isEqualTo(2);
+                    assertThat(results.get(0).failed()).isEqualTo(1);
+                    assertThat(results.get(0).errors().get(0).message()).startsWith("Line 2 is not a valid album");
+                });
+
+        albumRepository.deleteById("ImportedAlbumId").block();
+        albumRepository.deleteById("ImportedAlbumId2").block();
+    }
+
+    @Test
+    public void testImportAlbums_SharedCover() {
+        byte[] image = new byte[]{52, 53, 54, 55, 56, 57, 58, 59};
+        Cover cover = uploadCover(ID1, image);
+        String body = """
+                {"id": "ImportedAlbumId", "title": "Imported Title", "artistName": "Imported Artist", "type": "CD", "stock": 5, "cover": {"hash": "%s"}}
+                {"id": "AlbumId2", "title": "Duplicate Title", "artistName": "Duplicate Artist", "type": "CD", "stock": 5, "cover": {"hash": "%s"}}
+                """.formatted(cover.hash(), cover.hash());
+
+        webTestClient.post().uri("/api/album/import")
+                .contentType(org.springframework.http.MediaType.APPLICATION_NDJSON)
+                .accept(org.springframework.http.MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(AlbumImportResult.class)
+                .consumeWith(response -> {
+                    List<AlbumImportResult> results = response.getResponseBody();
+                    assert results != null;
+                    assertThat(results.get(0).inserted()).isEqualTo(1);
+                    assertThat(results.get(0).failed()).isEqualTo(1);
+                });
+
+        webTestClient.delete().uri("/api/album/{id}", "ImportedAlbumId")
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get().uri("/api/album/{id}/cover", ID1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class).isEqualTo(image);
+    }
+
+    @Test
+    public void testImportAlbums_DuplicateIdInBatch() {
+        byte[] image = new byte[]{62, 63, 64, 65, 66, 67, 68, 69};
+        Cover cover = uploadCover(ID1, image);
+        String body = """
+                {"id": "ImportedAlbumId", "title": "Imported Title", "artistName": "Imported Artist", "type": "CD", "stock": 5, "cover": {"hash": "%s"}}
+                {"id": "ImportedAlbumId", "title": "Duplicate Title", "artistName": "Duplicate Artist", "type": "CD", "stock": 5, "cover": {"hash": "%s"}}
+                """.formatted(cover.hash(), cover.hash());
+
+        webTestClient.post().uri("/api/album/import")
+                .contentType(org.springframework.http.MediaType.APPLICATION_NDJSON)
+                .accept(org.springframework.http.MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(AlbumImportResult.class)
+                .consumeWith(response -> {
+                    List<AlbumImportResult> results = response.getResponseBody();
+                    assert results != null;
+                    assertThat(results.get(0).inserted()).isEqualTo(1);
+                    assertThat(results.get(0).failed()).isEqualTo(1);
+                    assertThat(results.get(0).errors().get(0).index()).isEqualTo(1);
+                });
+
+        webTestClient.get().uri("/api/album/{id}", "ImportedAlbumId")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Album.class)
+                .value(album -> assertThat(album.title()).isEqualTo("Imported Title"));
+
+        webTestClient.put().uri("/api/album/{id}/cover", ID1)
+                .contentType(org.springframework.http.MediaType.IMAGE_PNG)
+                .bodyValue(new byte[]{1, 2, 3})
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get().uri("/api/album/cover/{hash}", cover.hash())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class).isEqualTo(image);
+
+        albumRepository.deleteById("ImportedAlbumId").block();
+    }
+
+    @Test
+    public void testPatchAlbum() {
+        webTestClient.patch().uri("/api/album/{id}", ID2)
+                .bodyValue(new AlbumPatch(TITLE3, null, null, null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Album.class)
+                .consumeWith(response -> {
+                    Album album = response.getResponseBody();
+                    assert album != null;
+                    assertThat(album.title()).isEqualTo(TITLE3);
+                    assertThat(album.artistName()).isEqualTo(ARTIST2);
+                    assertThat(album.type()).isEqualTo(MediaType.VINYL);
+                    assertThat(album.stock()).isEqualTo(STOCK);
+                });
+
+        webTestClient.get().uri(uriBuilder -> uriBuilder
+                        .path("/api/album/search/title")
+                        .queryParam("prefix", TITLE3)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Album.class)
+                .consumeWith(response -> assertThat(response.getResponseBody()).extracting(Album::id).containsExactly(ID2));
+    }
+
+    @Test
+    public void testPatchAlbum_NotFound() {
+        webTestClient.patch().uri("/api/album/{id}", "Album5")
+                .bodyValue(new AlbumPatch(TITLE3, null, null, null))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void testAdjustStock() {
+        webTestClient.post().uri("/api/album/{id}/stock?delta={delta}", ID1, -11)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(StockLevel.class).isEqualTo(new StockLevel(ID1, STOCK - 11));
+
+        webTestClient.post().uri("/api/album/{id}/stock?delta={delta}", ID1, -1000)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        webTestClient.post().uri("/api/album/{id}/stock?delta={delta}", "Album5", 1)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void testAdjustStock_NullStock() {
+        mongoTemplate.insert(new Document("_id", "Album5")
+                        .append("title", TITLE3)
+                        .append("artistName", ARTIST3)
+                        .append("type", MediaType.CD.name())
+                        .append("stock", null)
+                        .append("version", 0L), "album")
+                .block();
+
+        webTestClient.post().uri("/api/album/{id}/stock?delta={delta}", "Album5", -1)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        webTestClient.post().uri("/api/album/{id}/stock?delta={delta}", "Album5", 5)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(StockLevel.class).isEqualTo(new StockLevel("Album5", 5));
+    }
+
+    @Test
+    public void testAdjustStock_Extremes() {
+        webTestClient.post().uri("/api/album/{id}/stock?delta={delta}", ID1, Integer.MIN_VALUE)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        webTestClient.post().uri("/api/album/{id}/stock?delta={delta}", ID1, Integer.MAX_VALUE)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        albumRepository.findById(ID1)
+                .as(StepVerifier::create)
+                .expectNextMatches(album -> STOCK.equals(album.stock()))
+                .verifyComplete();
+
+        webTestClient.post().uri("/api/album/{id}/stock?delta={delta}", ID1, Integer.MAX_VALUE - STOCK)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(StockLevel.class).isEqualTo(new StockLevel(ID1, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testAdjustStock_Concurrently() {
+        int reservations = STOCK + 50;
+
+        List<Boolean> results = Flux.range(0, reservations)
+                .flatMap(i -> albumService.adjustStock(ID2, -1)
+                        .map(stockLevel -> true)
+                        .onErrorResume(InsufficientStockException.class, e -> Mono.just(false)), 64)
+                .collectList()
+                .block();
+
+        assertThat(results).filteredOn(reserved -> reserved).hasSize(STOCK);
+        albumRepository.findById(ID2)
+                .as(StepVerifier::create)
+                .expectNextMatches(album -> album.stock() == 0)
+                .verifyComplete();
+    }
+
+    @Test
+    public void testGetFacets() {
+        webTestClient.get().uri("/api/album/facets")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AlbumFacets.class)
+                .isEqualTo(new AlbumFacets(
+                        List.of(new FacetCount(MediaType.VINYL.name(), 2)),
+                        List.of(new FacetCount(ARTIST2, 1), new FacetCount(ARTIST1, 1)),
+                        List.of(new FacetCount("IN_STOCK", 2))));
+    }
+
+    @Test
+    public void testGetFacets_byTitlePrefix() {
+        webTestClient.get().uri("/api/album/facets?title={title}", "album title ro")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AlbumFacets.class)
+                .consumeWith(response -> {
+                    AlbumFacets facets = response.getResponseBody();
+                    assert facets != null;
+                    assertThat(facets.artists()).containsExactly(new FacetCount(ARTIST1, 1));
+                    assertThat(facets.types()).containsExactly(new FacetCount(MediaType.VINYL.name(), 1));
+                });
+    }
+
     @Test
     public void testDeleteAlbum() {
         webTestClient.delete().uri("/api/album/{id}", ID2)
@@ -198,10 +794,21 @@ public class AlbumControllerIntegrationTest {
     }
 
     private void insertSampleAlbums() {
-        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, null);
-        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, null);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, null, null);
+        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, null, null);
 
         albumRepository.save(album).block();
         albumRepository.save(album2).block();
     }
+
+    private Cover uploadCover(String albumId, byte[] image) {
+        return webTestClient.put().uri("/api/album/{id}/cover", albumId)
+                .contentType(org.springframework.http.MediaType.IMAGE_PNG)
+                .bodyValue(image)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Cover.class)
+                .returnResult()
+                .getResponseBody();
+    }
 }
@@ -1,21 +1,48 @@
 package com.example.Musicalog.controller;
 
+import com.example.Musicalog.configuration.CodecConfig;
 import com.example.Musicalog.configuration.ServiceConfig;
 import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.AlbumBatch;
+import com.example.Musicalog.domain.AlbumImportResult;
+import com.example.Musicalog.domain.AlbumPage;
+import com.example.Musicalog.domain.AlbumPatch;
+import com.example.Musicalog.domain.AlbumSummary;
+import com.example.Musicalog.domain.Cover;
 import com.example.Musicalog.domain.MediaType;
+import com.example.Musicalog.domain.StockLevel;
+import com.example.Musicalog.service.AlbumExportService;
+import com.example.Musicalog.service.AlbumImportService;
 import com.example.Musicalog.service.AlbumService;
+import com.example.Musicalog.service.CoverContent;
+import com.example.Musicalog.service.CoverService;
+import com.example.Musicalog.service.ThumbnailService;
+import com.example.Musicalog.service.exception.ConflictException;
+import com.example.Musicalog.service.exception.InsufficientStockException;
 import com.example.Musicalog.service.exception.NotFoundException;
+import com.example.Musicalog.service.exception.PreconditionFailedException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -31,24 +58,44 @@ public class AlbumControllerTest {
     private static final String  ARTIST1 = "Album Artist 1";
     private static final String  ARTIST2 = "Album Artist 2";
     private static final Integer STOCK   = 111;
-    private static final byte[]  COVER   = new byte[10];
+    private static final Cover   COVER   = new Cover("CoverId", "image/png", 10L, "CoverHash");
 
     @MockBean
     private AlbumService service;
 
+    @MockBean
+    private CoverService coverService;
+
+    @MockBean
+    private AlbumImportService importService;
+
+    @MockBean
+    private AlbumExportService exportService;
+
+    @MockBean
+    private ThumbnailService thumbnailService;
+
+    private static final ObjectMapper CBOR_MAPPER = Jackson2ObjectMapperBuilder.cbor().build();
+
     private WebTestClient webTestClient;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        this.webTestClient = WebTestClient.bindToController(new AlbumController(service)).build();
+        this.webTestClient = WebTestClient.bindToController(new AlbumController(service, coverService, importService, exportService, thumbnailService)).build();
+    }
+
+    private WebTestClient cborClient() {
+        return WebTestClient.bindToController(new AlbumController(service, coverService, importService, exportService, thumbnailService))
+                .httpMessageCodecs(new CodecConfig().cborCodecCustomizer(Jackson2ObjectMapperBuilder.json())::customize)
+                .build();
     }
 
     @Test
     void shouldGetAllAlbums() {
         //given
-        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER);
-        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
         when(service.findAll()).thenReturn(Flux.just(album, album2));
 
         //when
@@ -85,8 +132,8 @@ public class AlbumControllerTest {
     @Test
     void shouldGetAllAlbumsByTitle() {
         //given
-        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER);
-        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
         when(service.findAllByTitle("Album")).thenReturn(Flux.just(album, album2));
 
         //when
@@ -131,8 +178,8 @@ public class AlbumControllerTest {
     @Test
     void shouldGetAllAlbumsByArtistName() {
         //given
-        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER);
-        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
         when(service.findAllByArtistName("Art")).thenReturn(Flux.just(album, album2));
 
         //when
@@ -174,10 +221,321 @@ public class AlbumControllerTest {
         verify(service, times(1)).findAllByArtistName("Art");
     }
 
+    @Test
+    void shouldStreamAllAlbums_Ndjson() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
+        when(exportService.streamAll()).thenReturn(Flux.just(album, album2));
+
+        //when
+        webTestClient.get().uri("/api/album/all")
+                .accept(org.springframework.http.MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(org.springframework.http.MediaType.APPLICATION_NDJSON)
+                .returnResult(Album.class)
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .expectNext(album)
+                .expectNext(album2)
+                .verifyComplete();
+
+        //then
+        verify(exportService, times(1)).streamAll();
+        verify(service, never()).findAll();
+    }
+
+    @Test
+    void shouldStreamAllAlbumsByTitle_EventStream() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        when(exportService.streamAllByTitle("Album")).thenReturn(Flux.just(album));
+
+        //when
+        webTestClient.get().uri(uriBuilder -> uriBuilder
+                        .path("/api/album/all/title")
+                        .queryParam("title", "Album")
+                        .build())
+                .accept(org.springframework.http.MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(org.springframework.http.MediaType.TEXT_EVENT_STREAM)
+                .returnResult(Album.class)
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .expectNext(album)
+                .verifyComplete();
+
+        //then
+        verify(exportService, times(1)).streamAllByTitle("Album");
+    }
+
+    @Test
+    void shouldStreamAllAlbumsByArtistName_Ndjson() {
+        //given
+        when(exportService.streamAllByArtistName("Art")).thenReturn(Flux.empty());
+
+        //when
+        webTestClient.get().uri(uriBuilder -> uriBuilder
+                        .path("/api/album/all/artist")
+                        .queryParam("artistName", "Art")
+                        .build())
+                .accept(org.springframework.http.MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Album.class)
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .verifyComplete();
+
+        //then
+        verify(exportService, times(1)).streamAllByArtistName("Art");
+    }
+
+    @Test
+    void shouldGetAllAlbumSummaries() {
+        //given
+        AlbumSummary summary = new AlbumSummary(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK);
+        AlbumSummary summary2 = new AlbumSummary(ID2, TITLE2, ARTIST2, MediaType.CD, STOCK);
+        when(service.findAllSummaries()).thenReturn(Flux.just(summary, summary2));
+
+        //when
+        webTestClient.get().uri("/api/album/all?view=summary")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(AlbumSummary.class).isEqualTo(List.of(summary, summary2));
+
+        //then
+        verify(service, times(1)).findAllSummaries();
+        verify(service, never()).findAll();
+    }
+
+    @Test
+    void shouldGetAllAlbumSummariesByTitle() {
+        //given
+        AlbumSummary summary = new AlbumSummary(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK);
+        when(service.findAllSummariesByTitle("Album")).thenReturn(Flux.just(summary));
+
+        //when
+        webTestClient.get().uri(uriBuilder -> uriBuilder
+                        .path("/api/album/all/title")
+                        .queryParam("title", "Album")
+                        .queryParam("view", "summary")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(AlbumSummary.class).isEqualTo(List.of(summary));
+
+        //then
+        verify(service, times(1)).findAllSummariesByTitle("Album");
+    }
+
+    @Test
+    void shouldGetAllAlbumSummariesByArtistName() {
+        //given
+        AlbumSummary summary = new AlbumSummary(ID2, TITLE2, ARTIST2, MediaType.CD, STOCK);
+        when(service.findAllSummariesByArtistName("Art")).thenReturn(Flux.just(summary));
+
+        //when
+        webTestClient.get().uri(uriBuilder -> uriBuilder
+                        .path("/api/album/all/artist")
+                        .queryParam("artistName", "Art")
+                        .queryParam("view", "summary")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(AlbumSummary.class).isEqualTo(List.of(summary));
+
+        //then
+        verify(service, times(1)).findAllSummariesByArtistName("Art");
+    }
+
+    @Test
+    void shouldSearchAlbums() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        when(service.search("Title")).thenReturn(Flux.just(album));
+
+        //when
+        webTestClient.get().uri(uriBuilder -> uriBuilder
+                        .path("/api/album/search")
+                        .queryParam("text", "Title")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Album.class)
+                .consumeWith(response -> {
+                    List<Album> albums = response.getResponseBody();
+                    assert albums != null;
+                    assertThat(albums).extracting(Album::id).containsExactly(ID1);
+                });
+
+        //then
+        verify(service, times(1)).search("Title");
+    }
+
+    @Test
+    void shouldSearchAlbumsByTitlePrefix() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        when(service.searchByTitlePrefix("Album")).thenReturn(Flux.just(album));
+
+        //when
+        webTestClient.get().uri(uriBuilder -> uriBuilder
+                        .path("/api/album/search/title")
+                        .queryParam("prefix", "Album")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Album.class)
+                .consumeWith(response -> {
+                    List<Album> albums = response.getResponseBody();
+                    assert albums != null;
+                    assertThat(albums).extracting(Album::id).containsExactly(ID1);
+                });
+
+        //then
+        verify(service, times(1)).searchByTitlePrefix("Album");
+    }
+
+    @Test
+    void shouldSearchAlbumsByArtistNamePrefix() {
+        //given
+        when(service.searchByArtistNamePrefix("Art")).thenReturn(Flux.empty());
+
+        //when
+        webTestClient.get().uri(uriBuilder -> uriBuilder
+                        .path("/api/album/search/artist")
+                        .queryParam("prefix", "Art")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Album.class).isEqualTo(List.of());
+
+        //then
+        verify(service, times(1)).searchByArtistNamePrefix("Art");
+    }
+
+    @Test
+    void shouldGetAlbumsById() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        when(service.findAllById(List.of(ID1, ID2))).thenReturn(Mono.just(new AlbumBatch<>(List.of(album), List.of(ID2))));
+
+        //when
+        webTestClient.get().uri("/api/album/batch?ids={ids}", ID1 + "," + ID2)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.albums[0].id").isEqualTo(ID1)
+                .jsonPath("$.albums.length()").isEqualTo(1)
+                .jsonPath("$.notFound[0]").isEqualTo(ID2);
+
+        //then
+        verify(service, times(1)).findAllById(List.of(ID1, ID2));
+    }
+
+    @Test
+    void shouldGetAlbumSummariesById() {
+        //given
+        AlbumSummary summary = new AlbumSummary(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK);
+        when(service.findAllSummariesById(List.of(ID1))).thenReturn(Mono.just(new AlbumBatch<>(List.of(summary), List.of())));
+
+        //when
+        webTestClient.get().uri("/api/album/batch?ids={ids}&view=summary", ID1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.albums[0].id").isEqualTo(ID1)
+                .jsonPath("$.albums[0].cover").doesNotExist()
+                .jsonPath("$.notFound").isEmpty();
+
+        //then
+        verify(service, times(1)).findAllSummariesById(List.of(ID1));
+        verify(service, never()).findAllById(any());
+    }
+
+    @Test
+    void shouldGetAlbumsById_TooManyIds() {
+        //given
+        when(service.findAllById(any())).thenReturn(Mono.error(new IllegalArgumentException("Too many ids")));
+
+        //when
+        webTestClient.get().uri("/api/album/batch?ids={ids}", ID1)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        //then
+        verify(service, times(1)).findAllById(any());
+    }
+
+    @Test
+    void shouldGetAlbumPage() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        AlbumPage page = new AlbumPage(List.of(album), "next");
+        when(service.findPage("after", 1)).thenReturn(Mono.just(page));
+
+        //when
+        webTestClient.get().uri(uriBuilder -> uriBuilder
+                        .path("/api/album/page")
+                        .queryParam("after", "after")
+                        .queryParam("limit", 1)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AlbumPage.class)
+                .consumeWith(response -> {
+                    AlbumPage pageResult = response.getResponseBody();
+                    assert pageResult != null;
+                    assertThat(pageResult.albums()).extracting(Album::id).containsExactly(ID1);
+                    assertThat(pageResult.next()).isEqualTo("next");
+                });
+
+        //then
+        verify(service, times(1)).findPage("after", 1);
+    }
+
+    @Test
+    void shouldGetAlbumPage_defaultLimit() {
+        //given
+        when(service.findPageByTitle("Album", null, 50)).thenReturn(Mono.just(new AlbumPage(List.of(), null)));
+
+        //when
+        webTestClient.get().uri(uriBuilder -> uriBuilder
+                        .path("/api/album/page/title")
+                        .queryParam("title", "Album")
+                        .build())
+                .exchange()
+                .expectStatus().isOk();
+
+        //then
+        verify(service, times(1)).findPageByTitle("Album", null, 50);
+    }
+
+    @Test
+    void shouldGetAlbumPage_invalidCursor() {
+        //given
+        when(service.findPageByArtistName("Art", "bad", 50)).thenReturn(Mono.error(new IllegalArgumentException("bad cursor")));
+
+        //when
+        webTestClient.get().uri(uriBuilder -> uriBuilder
+                        .path("/api/album/page/artist")
+                        .queryParam("artistName", "Art")
+                        .queryParam("after", "bad")
+                        .build())
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        //then
+        verify(service, times(1)).findPageByArtistName("Art", "bad", 50);
+    }
+
     @Test
     void shouldFindAlbumById() {
         //given
-        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
         when(service.findById(ID1)).thenReturn(Mono.just(album));
 
         //when
@@ -212,10 +570,130 @@ public class AlbumControllerTest {
         verify(service, times(1)).findById(ID2);
     }
 
+    @Test
+    void shouldFindAlbumById_Cbor() throws IOException {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, 3L);
+        when(service.findById(ID1)).thenReturn(Mono.just(album));
+
+        //when
+        byte[] body = cborClient().get().uri("/api/album/{id}", ID1)
+                .accept(org.springframework.http.MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(org.springframework.http.MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        //then
+        assertThat(CBOR_MAPPER.readValue(body, Album.class)).isEqualTo(album);
+    }
+
+    @Test
+    void shouldGetAllAlbums_Cbor() throws IOException {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.CD, STOCK, null, null);
+        when(service.findAll()).thenReturn(Flux.just(album, album2));
+
+        //when
+        byte[] body = cborClient().get().uri("/api/album/all")
+                .accept(org.springframework.http.MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        //then
+        assertThat(CBOR_MAPPER.readValue(body, Album[].class)).containsExactly(album, album2);
+        assertThat(body[0]).isEqualTo((byte) 0x9F);
+        assertThat(body[body.length - 1]).isEqualTo((byte) 0xFF);
+    }
+
+    @Test
+    void shouldStreamAlbums_Cbor() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, null, null);
+        Sinks.Many<Album> albums = Sinks.many().unicast().onBackpressureBuffer();
+        when(service.findAll()).thenReturn(albums.asFlux());
+        albums.tryEmitNext(album);
+
+        //when
+        Flux<DataBuffer> body = cborClient().get().uri("/api/album/all")
+                .accept(org.springframework.http.MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(DataBuffer.class)
+                .getResponseBody();
+
+        //then
+        StepVerifier.create(body)
+                .expectNextMatches(buffer -> buffer.readableByteCount() > 0)
+                .then(albums::tryEmitComplete)
+                .thenConsumeWhile(buffer -> true)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldSave_Cbor() throws IOException {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, null, null);
+        when(service.save(album)).thenReturn(Mono.just(album));
+
+        //when
+        cborClient().post().uri("/api/album/save")
+                .contentType(org.springframework.http.MediaType.APPLICATION_CBOR)
+                .bodyValue(CBOR_MAPPER.writeValueAsBytes(album))
+                .exchange()
+                .expectStatus().isOk();
+
+        //then
+        verify(service, times(1)).save(album);
+    }
+
+    @Test
+    void shouldFindAlbumById_NotModified() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, 3L);
+        when(service.findById(ID1)).thenReturn(Mono.just(album));
+
+        //when
+        webTestClient.get().uri("/api/album/{id}", ID1)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"")
+                .expectBody().isEmpty();
+
+        //then
+        verify(service, times(1)).findById(ID1);
+    }
+
+    @Test
+    void shouldFindAlbumById_ETag() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, 4L);
+        when(service.findById(ID1)).thenReturn(Mono.just(album));
+
+        //when
+        webTestClient.get().uri("/api/album/{id}", ID1)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"4\"")
+                .expectBody(Album.class).isEqualTo(album);
+
+        //then
+        verify(service, times(1)).findById(ID1);
+    }
+
     @Test
     void shouldSave() {
         //given
-        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
         when(service.save(any())).thenReturn(Mono.just(album));
 
         //when
@@ -236,7 +714,7 @@ public class AlbumControllerTest {
     @Test
     void shouldSave_alreadyExists() {
         //given
-        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
         when(service.save(any())).thenReturn(Mono.just(album));
 
         //when
@@ -271,13 +749,90 @@ public class AlbumControllerTest {
         verify(service, times(2)).save(any());
     }
 
+    @Test
+    void shouldSave_Conflict() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        when(service.save(any())).thenReturn(Mono.error(new ConflictException("Album already exists")));
+
+        //when
+        webTestClient.post().uri("/api/album/save")
+                .bodyValue(album)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        //then
+        verify(service, times(1)).save(any());
+    }
+
+    @Test
+    void shouldSave_UnknownCover() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        when(service.save(any())).thenReturn(Mono.error(new NotFoundException("Cover not found")));
+
+        //when
+        webTestClient.post().uri("/api/album/save")
+                .bodyValue(album)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        //then
+        verify(service, times(1)).save(any());
+    }
+
+    @Test
+    void shouldSave_WithVersion() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, 2L);
+        when(service.save(any())).thenReturn(Mono.error(new IllegalArgumentException("Album cannot be created with a version")));
+
+        //when
+        webTestClient.post().uri("/api/album/save")
+                .bodyValue(album)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        //then
+        verify(service, times(1)).save(any());
+    }
+
+    @Test
+    void shouldImportAlbums() {
+        //given
+        AlbumImportResult importResult = new AlbumImportResult(0, 2, 2, 0, List.of());
+        when(importService.importLines(any())).thenAnswer(invocation -> {
+            Flux<String> lines = invocation.getArgument(0);
+            return lines.filter(line -> !line.isBlank())
+                    .collectList()
+                    .map(received -> new AlbumImportResult(0, received.size(), received.size(), 0, List.of()))
+                    .flux();
+        });
+        String body = """
+                {"id": "AlbumId", "title": "Album Title 1", "artistName": "Album Artist 1", "type": "VINYL", "stock": 111}
+                {"id": "AlbumId2", "title": "Album Title 2", "artistName": "Album Artist 2", "type": "CD", "stock": 111}
+                """;
+
+        //when
+        webTestClient.post().uri("/api/album/import")
+                .contentType(org.springframework.http.MediaType.APPLICATION_NDJSON)
+                .accept(org.springframework.http.MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(AlbumImportResult.class).isEqualTo(List.of(importResult));
+
+        //then
+        verify(importService, times(1)).importLines(any());
+    }
+
     @Test
     void shouldUpdate() {
         //given
-        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER);
-        Album album2 = new Album(ID1, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        Album album2 = new Album(ID1, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
         when(service.findById(ID1)).thenReturn(Mono.just(album));
-        when(service.update(any())).thenReturn(Mono.just(album2));
+        when(service.update(any(), any())).thenReturn(Mono.just(album2));
 
         //when
         webTestClient.put().uri("/api/album/update")
@@ -294,29 +849,187 @@ public class AlbumControllerTest {
                 });
 
         //then
-        verify(service, times(1)).update(any());
+        verify(service, times(1)).update(any(), any());
     }
 
     @Test
     void shouldUpdate_NotFound() {
         //given
-        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER);
-        when(service.update(any())).thenReturn(Mono.error(new NotFoundException("Album not found")));
+        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
+        when(service.update(any(), any())).thenReturn(Mono.error(new NotFoundException("Album not found")));
+
+        //when
+        webTestClient.put().uri("/api/album/update")
+                .bodyValue(album2)
+                .exchange()
+                .expectStatus().isNotFound();
+
+        //then
+        verify(service, times(1)).update(any(), any());
+    }
+
+    @Test
+    void shouldUpdate_PreconditionFailed() {
+        //given
+        Album album2 = new Album(ID1, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
+        when(service.update(any(), eq(Set.of(3L)))).thenReturn(Mono.error(new PreconditionFailedException("Album modified")));
+
+        //when
+        webTestClient.put().uri("/api/album/update")
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .bodyValue(album2)
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        //then
+        verify(service, times(1)).update(any(), eq(Set.of(3L)));
+    }
+
+    @Test
+    void shouldUpdate_IfMatchList() {
+        //given
+        Album album2 = new Album(ID1, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, 4L);
+        when(service.update(any(), eq(Set.of(3L, 4L)))).thenReturn(Mono.just(album2));
 
         //when
         webTestClient.put().uri("/api/album/update")
+                .header(HttpHeaders.IF_MATCH, "\"3\", \"4\"")
                 .bodyValue(album2)
+                .exchange()
+                .expectStatus().isOk();
+
+        //then
+        verify(service, times(1)).update(any(), eq(Set.of(3L, 4L)));
+    }
+
+    @Test
+    void shouldUpdate_IfMatchWeakTag() {
+        //given
+        Album album2 = new Album(ID1, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
+        when(service.update(any(), eq(Set.of()))).thenReturn(Mono.error(new PreconditionFailedException("Album modified")));
+
+        //when
+        webTestClient.put().uri("/api/album/update")
+                .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                .bodyValue(album2)
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        //then
+        verify(service, times(1)).update(any(), eq(Set.of()));
+    }
+
+    @Test
+    void shouldPatch() {
+        //given
+        Album patched = new Album(ID1, TITLE2, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        when(service.patch(ID1, new AlbumPatch(TITLE2, null, null, null), null)).thenReturn(Mono.just(patched));
+
+        //when
+        webTestClient.patch().uri("/api/album/{id}", ID1)
+                .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
+                .bodyValue("{\"title\": \"%s\"}".formatted(TITLE2))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Album.class).isEqualTo(patched);
+
+        //then
+        verify(service, times(1)).patch(ID1, new AlbumPatch(TITLE2, null, null, null), null);
+    }
+
+    @Test
+    void shouldPatch_NotFound() {
+        //given
+        when(service.patch(eq(ID2), any(), any())).thenReturn(Mono.error(new NotFoundException("Album not found")));
+
+        //when
+        webTestClient.patch().uri("/api/album/{id}", ID2)
+                .bodyValue(new AlbumPatch(null, null, null, 5))
+                .exchange()
+                .expectStatus().isNotFound();
+
+        //then
+        verify(service, times(1)).patch(ID2, new AlbumPatch(null, null, null, 5), null);
+    }
+
+    @Test
+    void shouldPatch_PreconditionFailed() {
+        //given
+        AlbumPatch patch = new AlbumPatch(null, null, null, 5);
+        when(service.patch(ID1, patch, Set.of(3L))).thenReturn(Mono.error(new PreconditionFailedException("Album modified")));
+
+        //when
+        webTestClient.patch().uri("/api/album/{id}", ID1)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .bodyValue(patch)
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        //then
+        verify(service, times(1)).patch(ID1, patch, 3L);
+    }
+
+    @Test
+    void shouldAdjustStock() {
+        //given
+        when(service.adjustStock(ID1, -2)).thenReturn(Mono.just(new StockLevel(ID1, STOCK - 2)));
+
+        //when
+        webTestClient.post().uri("/api/album/{id}/stock?delta={delta}", ID1, -2)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(StockLevel.class).isEqualTo(new StockLevel(ID1, STOCK - 2));
+
+        //then
+        verify(service, times(1)).adjustStock(ID1, -2);
+    }
+
+    @Test
+    void shouldAdjustStock_Insufficient() {
+        //given
+        when(service.adjustStock(ID1, -1000)).thenReturn(Mono.error(new InsufficientStockException("Not enough stock")));
+
+        //when
+        webTestClient.post().uri("/api/album/{id}/stock?delta={delta}", ID1, -1000)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        //then
+        verify(service, times(1)).adjustStock(ID1, -1000);
+    }
+
+    @Test
+    void shouldAdjustStock_Overflow() {
+        //given
+        when(service.adjustStock(ID1, Integer.MAX_VALUE)).thenReturn(Mono.error(new ConflictException("Stock cannot exceed maximum")));
+
+        //when
+        webTestClient.post().uri("/api/album/{id}/stock?delta={delta}", ID1, Integer.MAX_VALUE)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        //then
+        verify(service, times(1)).adjustStock(ID1, Integer.MAX_VALUE);
+    }
+
+    @Test
+    void shouldAdjustStock_NotFound() {
+        //given
+        when(service.adjustStock(ID2, 1)).thenReturn(Mono.error(new NotFoundException("Album not found")));
+
+        //when
+        webTestClient.post().uri("/api/album/{id}/stock?delta={delta}", ID2, 1)
                 .exchange()
                 .expectStatus().isNotFound();
 
         //then
-        verify(service, times(1)).update(any());
+        verify(service, times(1)).adjustStock(ID2, 1);
     }
 
     @Test
     void shouldRemove() {
         //given
-        when(service.remove(ID1)).thenReturn(Mono.empty());
+        when(service.remove(ID1, null)).thenReturn(Mono.empty());
 
         //when
         webTestClient.delete().uri("/api/album/{id}", ID1)
@@ -324,6 +1037,159 @@ public class AlbumControllerTest {
                 .expectStatus().isOk();
 
         //then
-        verify(service, times(1)).remove(ID1);
+        verify(service, times(1)).remove(ID1, null);
+    }
+
+    @Test
+    void shouldRemove_PreconditionFailed() {
+        //given
+        when(service.remove(ID1, Set.of(3L))).thenReturn(Mono.error(new PreconditionFailedException("Album modified")));
+
+        //when
+        webTestClient.delete().uri("/api/album/{id}", ID1)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        //then
+        verify(service, times(1)).remove(ID1, 3L);
+    }
+
+    @Test
+    void shouldUploadCover() {
+        //given
+        byte[] image = new byte[10];
+        when(coverService.store(eq(ID1), any(), eq("image/png"))).thenReturn(Mono.just(COVER));
+
+        //when
+        webTestClient.put().uri("/api/album/{id}/cover", ID1)
+                .contentType(org.springframework.http.MediaType.IMAGE_PNG)
+                .bodyValue(image)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Cover.class).isEqualTo(COVER);
+
+        //then
+        verify(coverService, times(1)).store(eq(ID1), any(), eq("image/png"));
+    }
+
+    @Test
+    void shouldUploadCover_NotFound() {
+        //given
+        when(coverService.store(eq(ID2), any(), any())).thenReturn(Mono.error(new NotFoundException("Album not found")));
+
+        //when
+        webTestClient.put().uri("/api/album/{id}/cover", ID2)
+                .contentType(org.springframework.http.MediaType.IMAGE_PNG)
+                .bodyValue(new byte[10])
+                .exchange()
+                .expectStatus().isNotFound();
+
+        //then
+        verify(coverService, times(1)).store(eq(ID2), any(), any());
+    }
+
+    @Test
+    void shouldGetCover() {
+        //given
+        byte[] image = new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+        Flux<DataBuffer> content = Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(image));
+        when(coverService.load(ID1)).thenReturn(Mono.just(new CoverContent(COVER, content)));
+
+        //when
+        webTestClient.get().uri("/api/album/{id}/cover", ID1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(COVER.contentType())
+                .expectHeader().contentLength(COVER.size())
+                .expectHeader().valueEquals("ETag", "\"" + COVER.hash() + "\"")
+                .expectBody(byte[].class).isEqualTo(image);
+
+        //then
+        verify(coverService, times(1)).load(ID1);
+    }
+
+    @Test
+    void shouldGetCover_NotFound() {
+        //given
+        when(coverService.load(ID2)).thenReturn(Mono.error(new NotFoundException("Cover not found")));
+
+        //when
+        webTestClient.get().uri("/api/album/{id}/cover", ID2)
+                .exchange()
+                .expectStatus().isNotFound();
+
+        //then
+        verify(coverService, times(1)).load(ID2);
+    }
+
+    @Test
+    void shouldGetCoverByHash() {
+        //given
+        byte[] image = new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+        Flux<DataBuffer> content = Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(image));
+        when(coverService.loadByHash(COVER.hash())).thenReturn(Mono.just(new CoverContent(COVER, content)));
+
+        //when
+        webTestClient.get().uri("/api/album/cover/{hash}", COVER.hash())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(COVER.contentType())
+                .expectHeader().cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                .expectHeader().valueEquals("ETag", "\"" + COVER.hash() + "\"")
+                .expectBody(byte[].class).isEqualTo(image);
+
+        //then
+        verify(coverService, times(1)).loadByHash(COVER.hash());
+    }
+
+    @Test
+    void shouldGetCoverByHash_NotFound() {
+        //given
+        when(coverService.loadByHash("UnknownHash")).thenReturn(Mono.error(new NotFoundException("Cover not found")));
+
+        //when
+        webTestClient.get().uri("/api/album/cover/{hash}", "UnknownHash")
+                .exchange()
+                .expectStatus().isNotFound();
+
+        //then
+        verify(coverService, times(1)).loadByHash("UnknownHash");
+    }
+
+    @Test
+    void shouldGetCoverThumbnail() {
+        //given
+        byte[] image = new byte[]{1, 2, 3, 4};
+        Flux<DataBuffer> content = Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(image));
+        Cover thumbnail = new Cover("ThumbnailId", "image/jpeg", 4L, COVER.hash());
+        when(thumbnailService.load(COVER.hash(), 64)).thenReturn(Mono.just(new CoverContent(thumbnail, content)));
+
+        //when
+        webTestClient.get().uri("/api/album/cover/{hash}/thumbnail/{size}", COVER.hash(), 64)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType("image/jpeg")
+                .expectHeader().contentLength(4L)
+                .expectHeader().cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                .expectHeader().valueEquals("ETag", "\"" + COVER.hash() + "-64\"")
+                .expectBody(byte[].class).isEqualTo(image);
+
+        //then
+        verify(thumbnailService, times(1)).load(COVER.hash(), 64);
+    }
+
+    @Test
+    void shouldGetCoverThumbnail_NotFound() {
+        //given
+        when(thumbnailService.load(COVER.hash(), 100)).thenReturn(Mono.empty());
+
+        //when
+        webTestClient.get().uri("/api/album/cover/{hash}/thumbnail/{size}", COVER.hash(), 100)
+                .exchange()
+                .expectStatus().isNotFound();
+
+        //then
+        verify(thumbnailService, times(1)).load(COVER.hash(), 100);
     }
 }
@@ -0,0 +1,96 @@
+package com.example.Musicalog.controller;
+
+import com.example.Musicalog.service.AlbumSnapshot;
+import com.example.Musicalog.service.AlbumSnapshotService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.mockito.Mockito.*;
+
+public class AlbumSnapshotControllerTest {
+
+    private static final String JSON = "[{\"id\":\"AlbumId\"}]";
+    private static final String ETAG = "\"abc123\"";
+
+    @Mock
+    private AlbumSnapshotService snapshotService;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        webTestClient = WebTestClient.bindToController(new AlbumSnapshotController(snapshotService)).build();
+        when(snapshotService.get()).thenReturn(Mono.just(new AlbumSnapshot(gzip(JSON), 1, ETAG)));
+    }
+
+    @Test
+    void shouldServeGzippedSnapshot() throws IOException {
+        //when //then
+        webTestClient.get().uri("/api/album/snapshot")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .expectHeader().valueEquals(HttpHeaders.ETAG, ETAG)
+                .expectBody(byte[].class).isEqualTo(gzip(JSON));
+    }
+
+    @Test
+    void shouldInflateSnapshotForClientsWithoutGzip() {
+        //when //then
+        webTestClient.get().uri("/api/album/snapshot")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.CONTENT_ENCODING)
+                .expectBody(String.class).isEqualTo(JSON);
+    }
+
+    @Test
+    void shouldNotModifyForMatchingETagInList() {
+        //when //then
+        webTestClient.get().uri("/api/album/snapshot")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + ETAG)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void shouldNotModifyForWildcard() {
+        //when //then
+        webTestClient.get().uri("/api/album/snapshot")
+                .header(HttpHeaders.IF_NONE_MATCH, "*")
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenDisabled() {
+        //given
+        when(snapshotService.get()).thenReturn(Mono.empty());
+
+        //when //then
+        webTestClient.get().uri("/api/album/snapshot")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream output = new GZIPOutputStream(bytes)) {
+            output.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.Musicalog.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrencyLimitFilterTest {
+
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ConcurrencyLimitFilter(Map.of("/api/album/all/**", 1, "/api/album/**", 2), 1);
+    }
+
+    @Test
+    void shouldRejectWhenSaturated() {
+        //given
+        Sinks.Empty<Void> inFlight = Sinks.empty();
+        MockServerWebExchange first = exchange("/api/album/all");
+        MockServerWebExchange second = exchange("/api/album/all/title");
+
+        //when
+        StepVerifier.create(filter.filter(first, exchange -> inFlight.asMono()))
+                .then(() -> StepVerifier.create(filter.filter(second, exchange -> Mono.empty())).verifyComplete())
+                .then(inFlight::tryEmitEmpty)
+                .verifyComplete();
+
+        //then
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(second.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(filter.inFlight("/api/album/all/**")).isZero();
+    }
+
+    @Test
+    void shouldLimitEachPatternSeparately() {
+        //given
+        Sinks.Empty<Void> inFlight = Sinks.empty();
+        MockServerWebExchange listing = exchange("/api/album/all");
+        MockServerWebExchange byId = exchange("/api/album/AlbumId");
+
+        //when
+        StepVerifier.create(filter.filter(listing, exchange -> inFlight.asMono()))
+                .then(() -> StepVerifier.create(filter.filter(byId, exchange -> Mono.empty())).verifyComplete())
+                .then(inFlight::tryEmitEmpty)
+                .verifyComplete();
+
+        //then
+        assertThat(byId.getResponse().getStatusCode()).isNull();
+    }
+
+    @Test
+    void shouldNotLimitUnmatchedPaths() {
+        //given
+        MockServerWebExchange health = exchange("/actuator/health");
+
+        //when
+        StepVerifier.create(filter.filter(health, exchange -> Mono.empty()))
+                .verifyComplete();
+
+        //then
+        assertThat(health.getResponse().getStatusCode()).isNull();
+    }
+
+    private static MockServerWebExchange exchange(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.Musicalog.controller;
+
+import com.example.Musicalog.repository.CausalSessions;
+import org.bson.BsonTimestamp;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class ReadYourWritesFilterTest {
+
+    private static final Instant NOW = Instant.parse("2024-02-01T10:00:00Z");
+    private static final BsonTimestamp OPERATION_TIME = new BsonTimestamp((int) NOW.minusSeconds(2).getEpochSecond(), 3);
+
+    @Mock
+    private CausalSessions sessions;
+
+    private ReadYourWritesFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        filter = new ReadYourWritesFilter(sessions, Clock.fixed(NOW, ZoneOffset.UTC));
+        when(sessions.readAfter(any(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    @Test
+    void shouldMarkWriteResponses() {
+        //given
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/album/save"));
+        when(sessions.operationTime()).thenReturn(Mono.just(OPERATION_TIME));
+
+        //when
+        StepVerifier.create(filter.filter(exchange, ignored -> exchange.getResponse().setComplete()))
+                .verifyComplete();
+
+        //then
+        assertThat(exchange.getResponse().getHeaders().getFirst(ReadYourWritesFilter.OPERATION_TIME_HEADER))
+                .isEqualTo(String.valueOf(OPERATION_TIME.getValue()));
+    }
+
+    @Test
+    void shouldNotMarkFailedWrites() {
+        //given
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/album/save"));
+
+        //when
+        StepVerifier.create(filter.filter(exchange, ignored -> {
+                    exchange.getResponse().setStatusCode(HttpStatus.CONFLICT);
+                    return exchange.getResponse().setComplete();
+                }))
+                .verifyComplete();
+
+        //then
+        assertThat(exchange.getResponse().getHeaders().containsKey(ReadYourWritesFilter.OPERATION_TIME_HEADER)).isFalse();
+        verify(sessions, never()).operationTime();
+    }
+
+    @Test
+    void shouldReadAfterOperationTime() {
+        //given
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/album/all")
+                .header(ReadYourWritesFilter.OPERATION_TIME_HEADER, String.valueOf(OPERATION_TIME.getValue())));
+
+        //when
+        StepVerifier.create(filter.filter(exchange, ignored -> Mono.empty()))
+                .verifyComplete();
+
+        //then
+        verify(sessions, times(1)).readAfter(eq(OPERATION_TIME), any());
+    }
+
+    @Test
+    void shouldClampOperationTimeFromTheFuture() {
+        //given
+        BsonTimestamp future = new BsonTimestamp((int) NOW.plusSeconds(3600).getEpochSecond(), 1);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/album/all")
+                .header(ReadYourWritesFilter.OPERATION_TIME_HEADER, String.valueOf(future.getValue())));
+
+        //when
+        StepVerifier.create(filter.filter(exchange, ignored -> Mono.empty()))
+                .verifyComplete();
+
+        //then
+        verify(sessions, times(1)).readAfter(eq(new BsonTimestamp((int) NOW.getEpochSecond(), 0)), any());
+    }
+
+    @Test
+    void shouldReadWithoutSessionWithoutOperationTime() {
+        //given
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/album/all")
+                .header(ReadYourWritesFilter.OPERATION_TIME_HEADER, "not a time"));
+
+        //when
+        StepVerifier.create(filter.filter(exchange, ignored -> Mono.empty()))
+                .verifyComplete();
+
+        //then
+        verify(sessions, never()).readAfter(any(), any());
+    }
+}
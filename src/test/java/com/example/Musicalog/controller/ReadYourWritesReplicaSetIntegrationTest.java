@@ -0,0 +1,128 @@
+package com.example.Musicalog.controller;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.MediaType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.Container;
+import org.testcontainers.containers.FixedHostPortGenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against a three member replica set whose secondaries stop replicating while an album is saved, so listing reads,
+ * which go to a secondary, only see it when they wait for the operation time of the write.
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+@PropertySource("classpath:application-test.properties")
+public class ReadYourWritesReplicaSetIntegrationTest {
+
+    private static final String MONGO_IMAGE = "mongo:7.0.5";
+    private static final int[] PORTS = {27117, 27118, 27119};
+    private static final Album ALBUM = new Album("ReplicatedAlbumId", "Album Title Jazz", "Album Artist Jazz", MediaType.VINYL, 111, null, null);
+    private static FixedHostPortGenericContainer<?> replicaSet;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @BeforeAll
+    public static void setUpReplicaSet() {
+        replicaSet = new FixedHostPortGenericContainer<>(MONGO_IMAGE);
+        for (int port : PORTS) {
+            replicaSet.withFixedExposedPort(port, port);
+        }
+        String mongods = Arrays.stream(PORTS)
+                .mapToObj(port -> ("mkdir -p /data/db/%1$d && mongod --fork --logpath /data/db/%1$d.log --dbpath /data/db/%1$d"
+                        + " --replSet rs0 --bind_ip_all --port %1$d --setParameter enableTestCommands=1").formatted(port))
+                .collect(Collectors.joining(" && "));
+        replicaSet.withCommand("bash", "-c", mongods + " && tail -f /dev/null")
+                .waitingFor(Wait.forLogMessage(".*child process started successfully.*", PORTS.length));
+        replicaSet.start();
+
+        String members = IntStream.range(0, PORTS.length)
+                .mapToObj(member -> "{_id: %d, host: 'localhost:%d', priority: %d}".formatted(member, PORTS[member], member == 0 ? 1 : 0))
+                .collect(Collectors.joining(", "));
+        mongosh(PORTS[0], "rs.initiate({_id: 'rs0', members: [" + members + "]});"
+                + " while (rs.status().members.some(member => member.stateStr !== 'PRIMARY' && member.stateStr !== 'SECONDARY')) { sleep(100); }");
+    }
+
+    @AfterAll
+    public static void stopReplicaSet() {
+        if (replicaSet != null) {
+            replicaSet.stop();
+        }
+    }
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        String hosts = Arrays.stream(PORTS).mapToObj(port -> "localhost:" + port).collect(Collectors.joining(","));
+        registry.add("spring.data.mongodb.uri", () -> "mongodb://%s/test?replicaSet=rs0&w=1".formatted(hosts));
+        registry.add("musicalog.read.listing-read-preference", () -> "secondary");
+    }
+
+    @Test
+    public void testReadAfterWrite_LaggingSecondaries() {
+        pauseReplication(true);
+        try {
+            String operationTime = webTestClient.post().uri("/api/album/save")
+                    .bodyValue(ALBUM)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .returnResult(Album.class)
+                    .getResponseHeaders()
+                    .getFirst(ReadYourWritesFilter.OPERATION_TIME_HEADER);
+            assertThat(operationTime).isNotNull();
+
+            webTestClient.get().uri("/api/album/all")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBodyList(Album.class)
+                    .value(albums -> assertThat(albums).extracting(Album::id).doesNotContain(ALBUM.id()));
+
+            Mono.delay(Duration.ofSeconds(1)).subscribe(ignored -> pauseReplication(false));
+            webTestClient.get().uri("/api/album/all")
+                    .header(ReadYourWritesFilter.OPERATION_TIME_HEADER, operationTime)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBodyList(Album.class)
+                    .value(albums -> assertThat(albums).extracting(Album::id).contains(ALBUM.id()));
+        } finally {
+            pauseReplication(false);
+        }
+    }
+
+    private static void pauseReplication(boolean paused) {
+        for (int port : Arrays.copyOfRange(PORTS, 1, PORTS.length)) {
+            mongosh(port, "db.adminCommand({configureFailPoint: 'stopReplProducer', mode: '%s'})".formatted(paused ? "alwaysOn" : "off"));
+        }
+    }
+
+    private static void mongosh(int port, String script) {
+        try {
+            Container.ExecResult result = replicaSet.execInContainer("mongosh", "--port", String.valueOf(port), "--quiet", "--eval", script);
+            assertThat(result.getExitCode()).as(result.getStderr()).isZero();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.Musicalog.repository;
 
 import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.Cover;
 import com.example.Musicalog.domain.MediaType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,7 +24,7 @@ public class AlbumRepositoryTest {
     private static final String ARTIST1 = "Album Artist 1";
     private static final String ARTIST2 = "Album Artist 2";
     private static final Integer STOCK = 111;
-    private static final byte[] COVER = new byte[10];
+    private static final Cover COVER = new Cover("CoverId", "image/png", 10L, "CoverHash");
 
     @Mock
     private AlbumRepository repository;
@@ -36,8 +37,8 @@ public class AlbumRepositoryTest {
     @Test
     void shouldFindAll() {
         //given
-        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER);
-        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
         when(repository.findAll()).thenReturn(Flux.just(album, album2));
 
         //when
@@ -61,8 +62,8 @@ public class AlbumRepositoryTest {
     @Test
     void shouldFindAllByTitle() {
         //given
-        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER);
-        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
         when(repository.findByTitleContainingIgnoreCase("album")).thenReturn(Flux.just(album, album2));
 
         //when
@@ -86,8 +87,8 @@ public class AlbumRepositoryTest {
     @Test
     void shouldFindAllByArtistName() {
         //given
-        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER);
-        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
         when(repository.findByTitleContainingIgnoreCase("Art")).thenReturn(Flux.just(album, album2));
 
         //when
@@ -111,7 +112,7 @@ public class AlbumRepositoryTest {
     @Test
     void shouldFindById() {
         //given
-        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
         when(repository.findById(ID1)).thenReturn(Mono.just(album));
 
         //when
@@ -134,7 +135,7 @@ public class AlbumRepositoryTest {
     @Test
     void shouldSave() {
         //given
-        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
         when(repository.save(album)).thenReturn(Mono.just(album));
 
         //when
@@ -147,7 +148,7 @@ public class AlbumRepositoryTest {
     @Test
     void shouldSave_alreadyExists() {
         //given
-        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
         when(repository.save(album)).thenReturn(Mono.just(album));
 
         //when
@@ -0,0 +1,26 @@
+package com.example.Musicalog.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AlbumSearchKeysTest {
+
+    @Test
+    void shouldNormalize() {
+        assertThat(AlbumSearchKeys.normalize("  Björk   Guðmundsdóttir ")).isEqualTo("bjork guðmundsdottir");
+        assertThat(AlbumSearchKeys.normalize("Beyoncé")).isEqualTo("beyonce");
+        assertThat(AlbumSearchKeys.normalize(null)).isNull();
+    }
+
+    @Test
+    void shouldBuildAnchoredPrefixPattern() {
+        assertThat(AlbumSearchKeys.prefixPattern("Motörhead")).isEqualTo("^motorhead");
+    }
+
+    @Test
+    void shouldEscapeRegexMetacharacters() {
+        assertThat(AlbumSearchKeys.prefixPattern("AC/DC (Live)? $5.99"))
+                .isEqualTo("^ac/dc \\(live\\)\\? \\$5\\.99");
+    }
+}
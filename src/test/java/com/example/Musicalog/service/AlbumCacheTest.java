@@ -0,0 +1,106 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.MediaType;
+import com.example.Musicalog.service.event.AlbumRemovedEvent;
+import com.example.Musicalog.service.event.AlbumSavedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AlbumCacheTest {
+
+    private static final String ID1 = "AlbumId";
+    private static final Album ALBUM = new Album(ID1, "Album Title 1", "Album Artist 1", MediaType.VINYL, 111, null, null);
+
+    private AlbumCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AlbumCache(1024 * 1024, Duration.ofMinutes(1));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void shouldLoadOnce() {
+        //when
+        Mono<Album> result = cache.get(ID1, this::load)
+                .then(cache.get(ID1, this::load));
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(ALBUM)
+                .verifyComplete();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void shouldNotCacheMissingAlbum() {
+        //when
+        Mono<Album> result = cache.get(ID1, id -> {
+                    loads.incrementAndGet();
+                    return Mono.<Album>empty();
+                })
+                .then(cache.get(ID1, this::load));
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(ALBUM)
+                .verifyComplete();
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void shouldInvalidateOnSavedEvent() {
+        //given
+        cache.get(ID1, this::load).block();
+
+        //when
+        cache.onAlbumSaved(new AlbumSavedEvent(ALBUM));
+        cache.get(ID1, this::load).block();
+
+        //then
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void shouldInvalidateOnRemovedEvent() {
+        //given
+        cache.get(ID1, this::load).block();
+
+        //when
+        cache.onAlbumRemoved(new AlbumRemovedEvent(ID1));
+        cache.get(ID1, this::load).block();
+
+        //then
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void shouldExposeMetrics() {
+        //given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        //when
+        cache.get(ID1, this::load).block();
+        cache.get(ID1, this::load).block();
+
+        //then
+        assertThat(registry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    private Mono<Album> load(String albumId) {
+        loads.incrementAndGet();
+        return Mono.just(ALBUM);
+    }
+}
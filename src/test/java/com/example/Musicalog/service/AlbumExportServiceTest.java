@@ -0,0 +1,65 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.MediaType;
+import com.example.Musicalog.repository.AlbumRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import static org.mockito.Mockito.when;
+
+public class AlbumExportServiceTest {
+
+    private static final int BATCH_SIZE = 100;
+    private static final Album ALBUM = new Album("AlbumId", "Album Title 1", "Album Artist 1", MediaType.VINYL, 111, null, null);
+    private static final Album ALBUM2 = new Album("AlbumId2", "Album Title 2", "Album Artist 2", MediaType.CD, 111, null, null);
+
+    @Mock
+    private AlbumRepository repository;
+
+    private AlbumExportService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new AlbumExportService(repository, BATCH_SIZE);
+    }
+
+    @Test
+    void shouldStreamAll() {
+        //given
+        when(repository.streamAll(BATCH_SIZE)).thenReturn(Flux.just(ALBUM, ALBUM2));
+
+        //when
+        StepVerifier.create(service.streamAll())
+                .expectNext(ALBUM)
+                .expectNext(ALBUM2)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldStreamAllByTitle() {
+        //given
+        when(repository.streamByTitleContainingIgnoreCase("title", BATCH_SIZE)).thenReturn(Flux.just(ALBUM));
+
+        //when
+        StepVerifier.create(service.streamAllByTitle("title"))
+                .expectNext(ALBUM)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldStreamAllByArtistName() {
+        //given
+        when(repository.streamByArtistNameContainingIgnoreCase("artist", BATCH_SIZE)).thenReturn(Flux.just(ALBUM2));
+
+        //when
+        StepVerifier.create(service.streamAllByArtistName("artist"))
+                .expectNext(ALBUM2)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.domain.AlbumFacets;
+import com.example.Musicalog.domain.FacetCount;
+import com.example.Musicalog.repository.AlbumRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+public class AlbumFacetServiceTest {
+
+    private static final AlbumFacets FACETS = new AlbumFacets(
+            List.of(new FacetCount("VINYL", 2)),
+            List.of(new FacetCount("Album Artist 1", 1), new FacetCount("Album Artist 2", 1)),
+            List.of(new FacetCount("IN_STOCK", 2)));
+
+    @Mock
+    private AlbumRepository repository;
+
+    private final AlbumMetrics metrics = new AlbumMetrics(new SimpleMeterRegistry());
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void shouldCacheFacets() {
+        //given
+        AlbumFacetService service = new AlbumFacetService(repository, metrics, 20, Duration.ofMinutes(1));
+        when(repository.facets(null, "Album", 20)).thenReturn(Mono.just(FACETS));
+
+        //when
+        Mono<AlbumFacets> result = service.facets(" ", "Album")
+                .then(service.facets(null, "Album"));
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(FACETS)
+                .verifyComplete();
+        verify(repository, times(1)).facets(null, "Album", 20);
+    }
+
+    @Test
+    void shouldNotShareFacetsOfDifferentFilters() {
+        //given
+        AlbumFacetService service = new AlbumFacetService(repository, metrics, 20, Duration.ofMinutes(1));
+        when(repository.facets(any(), any(), eq(20))).thenReturn(Mono.just(FACETS));
+
+        //when
+        Mono<AlbumFacets> result = service.facets("Rock", null)
+                .then(service.facets("Pop", null));
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(FACETS)
+                .verifyComplete();
+        verify(repository, times(1)).facets("Rock", null, 20);
+        verify(repository, times(1)).facets("Pop", null, 20);
+    }
+
+    @Test
+    void shouldQueryEveryTimeWithoutCache() {
+        //given
+        AlbumFacetService service = new AlbumFacetService(repository, metrics, 5, Duration.ZERO);
+        when(repository.facets(null, null, 5)).thenReturn(Mono.just(FACETS));
+
+        //when
+        Mono<AlbumFacets> result = service.facets(null, null)
+                .then(service.facets(null, null));
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(FACETS)
+                .verifyComplete();
+        verify(repository, times(2)).facets(null, null, 5);
+    }
+}
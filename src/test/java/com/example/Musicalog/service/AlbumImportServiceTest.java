@@ -0,0 +1,262 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.AlbumImportError;
+import com.example.Musicalog.domain.AlbumImportResult;
+import com.example.Musicalog.domain.Cover;
+import com.example.Musicalog.domain.MediaType;
+import com.example.Musicalog.repository.AlbumRepository;
+import com.example.Musicalog.service.event.AlbumSavedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class AlbumImportServiceTest {
+
+    private static final String ID1 = "AlbumId";
+    private static final String ID2 = "AlbumId2";
+    private static final String ID3 = "AlbumId3";
+    private static final Integer STOCK = 111;
+    private static final Cover COVER = new Cover("CoverId", "image/png", 10L, "CoverHash");
+
+    @Mock
+    private AlbumRepository repository;
+
+    @Mock
+    private CoverService coverService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private AlbumImportService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new AlbumImportService(repository, coverService, Jackson2ObjectMapperBuilder.json().build(), eventPublisher, 2, 1);
+    }
+
+    @Test
+    void shouldImportInBatches() {
+        //given
+        Album album = new Album(ID1, "Title 1", "Artist 1", MediaType.VINYL, STOCK, null, null);
+        Album album2 = new Album(ID2, "Title 2", "Artist 2", MediaType.CD, STOCK, null, null);
+        Album album3 = new Album(ID3, "Title 3", "Artist 3", MediaType.CD, STOCK, null, null);
+        when(repository.insertAll(List.of(album, album2))).thenReturn(Mono.just(List.of()));
+        when(repository.insertAll(List.of(album3))).thenReturn(Mono.just(List.of()));
+
+        //when
+        Flux<AlbumImportResult> result = service.importAlbums(Flux.just(album, album2, album3));
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(new AlbumImportResult(0, 2, 2, 0, List.of()))
+                .expectNext(new AlbumImportResult(1, 1, 1, 0, List.of()))
+                .verifyComplete();
+        verify(eventPublisher, times(3)).publishEvent(any(AlbumSavedEvent.class));
+    }
+
+    @Test
+    void shouldReportFailures() {
+        //given
+        Album album = new Album(ID1, "Title 1", "Artist 1", MediaType.VINYL, STOCK, null, null);
+        Album album2 = new Album(ID2, "Title 2", "Artist 2", MediaType.CD, STOCK, null, null);
+        AlbumImportError error = new AlbumImportError(1, ID2, "duplicate key");
+        when(repository.insertAll(List.of(album, album2))).thenReturn(Mono.just(List.of(error)));
+
+        //when
+        Flux<AlbumImportResult> result = service.importAlbums(Flux.just(album, album2));
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(new AlbumImportResult(0, 2, 1, 1, List.of(error)))
+                .verifyComplete();
+        verify(eventPublisher, times(1)).publishEvent(new AlbumSavedEvent(album));
+        verify(eventPublisher, never()).publishEvent(new AlbumSavedEvent(album2));
+    }
+
+    @Test
+    void shouldReportMalformedLines() {
+        //given
+        Album album = new Album(ID1, "Title 1", "Artist 1", MediaType.VINYL, STOCK, null, null);
+        Album album2 = new Album(ID2, "Title 2", "Artist 2", MediaType.CD, STOCK, null, null);
+        when(repository.insertAll(List.of(album))).thenReturn(Mono.just(List.of()));
+        when(repository.insertAll(List.of(album2))).thenReturn(Mono.just(List.of()));
+
+        //when
+        Flux<AlbumImportResult> result = service.importLines(Flux.just(
+                "{\"id\": \"AlbumId\", \"title\": \"Title 1\", \"artistName\": \"Artist 1\", \"type\": \"VINYL\", \"stock\": 111}",
+                "{\"id\": \"AlbumId3\", \"title\": ",
+                "",
+                "{\"id\": \"AlbumId2\", \"title\": \"Title 2\", \"artistName\": \"Artist 2\", \"type\": \"CD\", \"stock\": 111}"));
+
+        //then
+        StepVerifier.create(result)
+                .consumeNextWith(batch -> {
+                    assertThat(batch.received()).isEqualTo(2);
+                    assertThat(batch.inserted()).isEqualTo(1);
+                    assertThat(batch.failed()).isEqualTo(1);
+                    assertThat(batch.errors()).singleElement()
+                            .satisfies(error -> {
+                                assertThat(error.index()).isEqualTo(1);
+                                assertThat(error.message()).startsWith("Line 2 is not a valid album");
+                            });
+                })
+                .expectNext(new AlbumImportResult(1, 1, 1, 0, List.of()))
+                .verifyComplete();
+        verify(eventPublisher, times(2)).publishEvent(any(AlbumSavedEvent.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void shouldAssignMissingIds() {
+        //given
+        Album album = new Album(null, "Title 1", "Artist 1", MediaType.VINYL, STOCK, null, null);
+        when(repository.insertAll(anyList())).thenReturn(Mono.just(List.of()));
+
+        //when
+        StepVerifier.create(service.importAlbums(Flux.just(album)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        //then
+        verify(repository).insertAll(argThat(albums -> {
+            assertThat(albums).hasSize(1);
+            assertThat(albums.get(0).id()).isNotNull();
+            assertThat(albums.get(0).title()).isEqualTo("Title 1");
+            return true;
+        }));
+    }
+
+    @Test
+    void shouldRetainImportedCovers() {
+        //given
+        Album album = new Album(ID1, "Title 1", "Artist 1", MediaType.VINYL, STOCK, new Cover(null, null, null, COVER.hash()), null);
+        Album retained = new Album(ID1, "Title 1", "Artist 1", MediaType.VINYL, STOCK, COVER, null);
+        when(coverService.retain(album.cover())).thenReturn(Mono.just(COVER));
+        when(repository.insertAll(List.of(retained))).thenReturn(Mono.just(List.of()));
+
+        //when
+        Flux<AlbumImportResult> result = service.importAlbums(Flux.just(album));
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(new AlbumImportResult(0, 1, 1, 0, List.of()))
+                .verifyComplete();
+        verify(eventPublisher, times(1)).publishEvent(new AlbumSavedEvent(retained));
+        verify(coverService, never()).release(any());
+    }
+
+    @Test
+    void shouldReleaseCoversOfRejectedAlbums() {
+        //given
+        Album album = new Album(ID1, "Title 1", "Artist 1", MediaType.VINYL, STOCK, COVER, null);
+        Album album2 = new Album(ID2, "Title 2", "Artist 2", MediaType.CD, STOCK, COVER, null);
+        AlbumImportError error = new AlbumImportError(1, ID2, "duplicate key");
+        when(coverService.retain(COVER)).thenReturn(Mono.just(COVER));
+        when(coverService.release(COVER)).thenReturn(Mono.empty());
+        when(repository.insertAll(List.of(album, album2))).thenReturn(Mono.just(List.of(error)));
+
+        //when
+        Flux<AlbumImportResult> result = service.importAlbums(Flux.just(album, album2));
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(new AlbumImportResult(0, 2, 1, 1, List.of(error)))
+                .verifyComplete();
+        verify(coverService, times(2)).retain(COVER);
+        verify(coverService, times(1)).release(COVER);
+    }
+
+    @Test
+    void shouldOnlyReleaseTheRejectedDuplicateInBatch() {
+        //given
+        Album album = new Album(ID1, "Title 1", "Artist 1", MediaType.VINYL, STOCK, COVER, null);
+        Album duplicate = new Album(ID1, "Title 2", "Artist 2", MediaType.CD, STOCK, COVER, null);
+        AlbumImportError error = new AlbumImportError(1, ID1, "duplicate key");
+        when(coverService.retain(COVER)).thenReturn(Mono.just(COVER));
+        when(coverService.release(COVER)).thenReturn(Mono.empty());
+        when(repository.insertAll(List.of(album, duplicate))).thenReturn(Mono.just(List.of(error)));
+
+        //when
+        Flux<AlbumImportResult> result = service.importAlbums(Flux.just(album, duplicate));
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(new AlbumImportResult(0, 2, 1, 1, List.of(error)))
+                .verifyComplete();
+        verify(coverService, times(2)).retain(COVER);
+        verify(coverService, times(1)).release(COVER);
+        verify(eventPublisher, times(1)).publishEvent(new AlbumSavedEvent(album));
+        verify(eventPublisher, never()).publishEvent(new AlbumSavedEvent(duplicate));
+    }
+
+    @Test
+    void shouldReportFailuresAtTheirPositionInBatch() {
+        //given
+        Album album = new Album(ID1, "Title 1", "Artist 1", MediaType.VINYL, STOCK, COVER, null);
+        Album album2 = new Album(ID2, "Title 2", "Artist 2", MediaType.CD, STOCK, null, null);
+        Album duplicate = new Album(ID2, "Title 3", "Artist 3", MediaType.CD, STOCK, null, null);
+        when(coverService.retain(COVER)).thenReturn(Mono.empty());
+        when(repository.insertAll(List.of(album2, duplicate))).thenReturn(Mono.just(List.of(new AlbumImportError(1, ID2, "duplicate key"))));
+        service = new AlbumImportService(repository, coverService, Jackson2ObjectMapperBuilder.json().build(), eventPublisher, 3, 1);
+
+        //when
+        Flux<AlbumImportResult> result = service.importAlbums(Flux.just(album, album2, duplicate));
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(new AlbumImportResult(0, 3, 1, 2, List.of(
+                        new AlbumImportError(0, ID1, "Cover not found with hash: CoverHash"),
+                        new AlbumImportError(2, ID2, "duplicate key"))))
+                .verifyComplete();
+        verify(eventPublisher, times(1)).publishEvent(new AlbumSavedEvent(album2));
+        verify(eventPublisher, never()).publishEvent(new AlbumSavedEvent(duplicate));
+    }
+
+    @Test
+    void shouldReleaseCoversWhenBatchFails() {
+        //given
+        Album album = new Album(ID1, "Title 1", "Artist 1", MediaType.VINYL, STOCK, COVER, null);
+        when(coverService.retain(COVER)).thenReturn(Mono.just(COVER));
+        when(coverService.release(COVER)).thenReturn(Mono.empty());
+        when(repository.insertAll(List.of(album))).thenReturn(Mono.error(new IllegalStateException("connection lost")));
+
+        //when
+        Flux<AlbumImportResult> result = service.importAlbums(Flux.just(album));
+
+        //then
+        StepVerifier.create(result)
+                .verifyError(IllegalStateException.class);
+        verify(coverService, times(1)).release(COVER);
+    }
+
+    @Test
+    void shouldRejectUnknownCovers() {
+        //given
+        Album album = new Album(ID1, "Title 1", "Artist 1", MediaType.VINYL, STOCK, COVER, null);
+        Album album2 = new Album(ID2, "Title 2", "Artist 2", MediaType.CD, STOCK, null, null);
+        when(coverService.retain(COVER)).thenReturn(Mono.empty());
+        when(repository.insertAll(List.of(album2))).thenReturn(Mono.just(List.of()));
+
+        //when
+        Flux<AlbumImportResult> result = service.importAlbums(Flux.just(album, album2));
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(new AlbumImportResult(0, 2, 1, 1, List.of(new AlbumImportError(0, ID1, "Cover not found with hash: CoverHash"))))
+                .verifyComplete();
+        verify(eventPublisher, never()).publishEvent(new AlbumSavedEvent(album));
+    }
+}
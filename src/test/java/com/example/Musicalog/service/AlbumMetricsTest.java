@@ -0,0 +1,69 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.service.exception.NotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AlbumMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private AlbumMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new AlbumMetrics(registry);
+    }
+
+    @Test
+    void shouldTimeFluxAndRecordResultSize() {
+        //when
+        StepVerifier.create(metrics.timed("findAll", Flux.just("a", "b", "c")))
+                .expectNextCount(3)
+                .verifyComplete();
+
+        //then
+        assertThat(registry.get(AlbumMetrics.SERVICE_TIMER).tag("method", "findAll").tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(registry.get(AlbumMetrics.RESULT_SIZE).tag("method", "findAll").summary().totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldTimeFailedMono() {
+        //when
+        StepVerifier.create(metrics.timed("findById", Mono.error(new NotFoundException("Album not found"))))
+                .expectError(NotFoundException.class)
+                .verify();
+
+        //then
+        assertThat(registry.get(AlbumMetrics.SERVICE_TIMER).tag("method", "findById").tag("outcome", "NotFoundException").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTimeEachSubscription() {
+        //given
+        Mono<String> timed = metrics.timed("save", Mono.just("album"));
+
+        //when
+        StepVerifier.create(timed.then(timed))
+                .expectNext("album")
+                .verifyComplete();
+
+        //then
+        assertThat(registry.get(AlbumMetrics.SERVICE_TIMER).tag("method", "save").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRecordCoverSize() {
+        //when
+        metrics.recordCoverSize("upload", 1024);
+
+        //then
+        assertThat(registry.get(AlbumMetrics.COVER_SIZE).tag("direction", "upload").summary().totalAmount()).isEqualTo(1024);
+    }
+}
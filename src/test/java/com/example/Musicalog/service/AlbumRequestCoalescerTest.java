@@ -0,0 +1,189 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.MediaType;
+import com.example.Musicalog.service.event.AlbumRemovedEvent;
+import com.example.Musicalog.service.event.AlbumSavedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AlbumRequestCoalescerTest {
+
+    private SimpleMeterRegistry registry;
+    private AlbumRequestCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        coalescer = new AlbumRequestCoalescer(Set.of("findById", "findAllByTitle"), 2, new AlbumMetrics(registry));
+    }
+
+    @Test
+    void shouldShareInFlightMono() {
+        //given
+        AtomicInteger subscriptions = new AtomicInteger();
+        Sinks.One<String> result = Sinks.one();
+        Mono<String> source = result.asMono().doOnSubscribe(subscription -> subscriptions.incrementAndGet());
+
+        //when
+        Mono<List<String>> both = Flux.merge(
+                        coalescer.coalesce("findById", () -> source, "AlbumId"),
+                        coalescer.coalesce("findById", () -> source, "AlbumId"))
+                .collectList();
+
+        //then
+        StepVerifier.create(both)
+                .then(() -> result.tryEmitValue("album"))
+                .assertNext(albums -> assertThat(albums).containsExactly("album", "album"))
+                .verifyComplete();
+        assertThat(subscriptions).hasValue(1);
+        assertThat(coalescer.inFlight()).isZero();
+        assertThat(registry.get(AlbumMetrics.COALESCED).tag("method", "findById").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotShareDifferentArguments() {
+        //given
+        AtomicInteger subscriptions = new AtomicInteger();
+        Sinks.One<String> result = Sinks.one();
+        Mono<String> source = result.asMono().doOnSubscribe(subscription -> subscriptions.incrementAndGet());
+
+        //when
+        Mono<List<String>> both = Flux.merge(
+                        coalescer.coalesce("findById", () -> source, "AlbumId"),
+                        coalescer.coalesce("findById", () -> source, "AlbumId2"))
+                .collectList();
+
+        //then
+        StepVerifier.create(both)
+                .then(() -> result.tryEmitValue("album"))
+                .expectNextCount(1)
+                .verifyComplete();
+        assertThat(subscriptions).hasValue(2);
+    }
+
+    @Test
+    void shouldRunAgainOnceCompleted() {
+        //given
+        AtomicInteger subscriptions = new AtomicInteger();
+        Flux<String> source = Flux.just("album", "album2").doOnSubscribe(subscription -> subscriptions.incrementAndGet());
+
+        //when
+        Flux<String> sequential = coalescer.coalesceMany("findAllByTitle", () -> source, "Title")
+                .concatWith(coalescer.coalesceMany("findAllByTitle", () -> source, "Title"));
+
+        //then
+        StepVerifier.create(sequential)
+                .expectNext("album", "album2", "album", "album2")
+                .verifyComplete();
+        assertThat(subscriptions).hasValue(2);
+    }
+
+    @Test
+    void shouldReplayErrorToAllSubscribers() {
+        //given
+        Sinks.One<String> result = Sinks.one();
+
+        //when
+        Mono<String> first = coalescer.coalesce("findById", result::asMono, "AlbumId");
+        Mono<String> second = coalescer.coalesce("findById", result::asMono, "AlbumId");
+
+        //then
+        StepVerifier.create(Flux.merge(first, second))
+                .then(() -> result.tryEmitError(new IllegalStateException("Mongo unavailable")))
+                .expectError(IllegalStateException.class)
+                .verify();
+        assertThat(coalescer.inFlight()).isZero();
+    }
+
+    @Test
+    void shouldBypassMethodsOutOfScope() {
+        //given
+        AtomicInteger subscriptions = new AtomicInteger();
+        Sinks.One<String> result = Sinks.one();
+        Mono<String> source = result.asMono().doOnSubscribe(subscription -> subscriptions.incrementAndGet());
+
+        //when
+        Mono<List<String>> both = Flux.merge(
+                        coalescer.coalesce("search", () -> source, "text"),
+                        coalescer.coalesce("search", () -> source, "text"))
+                .collectList();
+
+        //then
+        StepVerifier.create(both)
+                .then(() -> result.tryEmitValue("album"))
+                .expectNextCount(1)
+                .verifyComplete();
+        assertThat(subscriptions).hasValue(2);
+        assertThat(coalescer.inFlight()).isZero();
+    }
+
+    @Test
+    void shouldNotJoinReadStartedBeforeWrite() {
+        //given
+        AtomicInteger subscriptions = new AtomicInteger();
+        Sinks.One<String> before = Sinks.one();
+        Sinks.One<String> after = Sinks.one();
+        Mono<String> first = coalescer.coalesce("findById", () -> before.asMono().doOnSubscribe(subscription -> subscriptions.incrementAndGet()), "AlbumId");
+
+        //when
+        StepVerifier.create(first)
+                .then(() -> coalescer.onAlbumSaved(new AlbumSavedEvent(new Album("AlbumId", "Title", "Artist", MediaType.CD, 1, null, 1L))))
+                .then(() -> StepVerifier.create(coalescer.coalesce("findById", () -> after.asMono().doOnSubscribe(subscription -> subscriptions.incrementAndGet()), "AlbumId"))
+                        .then(() -> after.tryEmitValue("written"))
+                        .expectNext("written")
+                        .verifyComplete())
+                .then(() -> before.tryEmitValue("stale"))
+                .expectNext("stale")
+                .verifyComplete();
+
+        //then
+        assertThat(subscriptions).hasValue(2);
+        assertThat(coalescer.inFlight()).isZero();
+    }
+
+    @Test
+    void shouldKeepSharingReadsOfOtherAlbumsOnWrite() {
+        //given
+        Sinks.One<String> result = Sinks.one();
+        Sinks.One<List<String>> listing = Sinks.one();
+        coalescer.coalesce("findById", result::asMono, "AlbumId2").subscribe();
+        coalescer.coalesce("findAllByTitle", listing::asMono, "Title").subscribe();
+
+        //when
+        coalescer.onAlbumRemoved(new AlbumRemovedEvent("AlbumId"));
+
+        //then
+        assertThat(coalescer.inFlight()).isEqualTo(1);
+        result.tryEmitValue("album");
+        assertThat(coalescer.inFlight()).isZero();
+    }
+
+    @Test
+    void shouldNotShareListingsOverMaxResults() {
+        //given
+        AtomicInteger subscriptions = new AtomicInteger();
+        Flux<String> source = Flux.just("album", "album2", "album3").doOnSubscribe(subscription -> subscriptions.incrementAndGet());
+
+        //when
+        Flux<String> result = coalescer.coalesceMany("findAllByTitle", () -> source, "Title");
+
+        //then
+        StepVerifier.create(result)
+                .expectNext("album", "album2", "album3")
+                .verifyComplete();
+        assertThat(subscriptions).hasValue(2);
+        assertThat(coalescer.inFlight()).isZero();
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.AlbumSummary;
+import com.example.Musicalog.domain.MediaType;
+import com.example.Musicalog.repository.AlbumRepository;
+import com.example.Musicalog.service.event.AlbumRemovedEvent;
+import com.example.Musicalog.service.event.AlbumSavedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class AlbumSearchIndexTest {
+
+    private static final Album BEATLES = new Album("AlbumId", "Abbey Road", "The Beatles", MediaType.VINYL, 10, null, 0L);
+    private static final Album STONES = new Album("AlbumId2", "Let It Bleed", "The Rolling Stones", MediaType.CD, 5, null, 0L);
+
+    @Mock
+    private AlbumRepository repository;
+
+    private AlbumSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        index = new AlbumSearchIndex(repository, 1024 * 1024);
+        when(repository.findAllProjectedBy()).thenReturn(Flux.just(summary(BEATLES), summary(STONES)));
+    }
+
+    @Test
+    void shouldSearchBuiltIndex() {
+        //given
+        when(repository.findAllById(List.of(BEATLES.id()))).thenReturn(Flux.just(BEATLES));
+        StepVerifier.create(index.build())
+                .expectNext(2)
+                .verifyComplete();
+
+        //when
+        Flux<Album> result = index.search("beatels", 10);
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(BEATLES)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReturnAlbumsInRankOrder() {
+        //given
+        Album tribute = new Album("AlbumId3", "Abbey Rood", "Tribute Band", MediaType.CD, 1, null, 0L);
+        when(repository.findAllById(List.of(BEATLES.id(), tribute.id()))).thenReturn(Flux.just(tribute, BEATLES));
+        index.build().block();
+        index.onAlbumSaved(new AlbumSavedEvent(tribute));
+
+        //when
+        Flux<Album> result = index.search("abbey road", 10);
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(BEATLES, tribute)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldApplyRemovals() {
+        //given
+        index.build().block();
+
+        //when
+        index.onAlbumRemoved(new AlbumRemovedEvent(BEATLES.id()));
+
+        //then
+        StepVerifier.create(index.search("beatles", 10))
+                .verifyComplete();
+        verify(repository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void shouldFallBackToTextSearchUntilBuilt() {
+        //given
+        when(repository.findAllBy(any(TextCriteria.class))).thenReturn(Flux.just(BEATLES));
+
+        //when
+        Flux<Album> result = index.search("beatles", 10);
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(BEATLES)
+                .verifyComplete();
+        verify(repository, times(1)).findAllBy(any(TextCriteria.class));
+    }
+
+    @Test
+    void shouldFallBackToTextSearchOverBudget() {
+        //given
+        AlbumSearchIndex smallIndex = new AlbumSearchIndex(repository, 100);
+        when(repository.findAllBy(any(TextCriteria.class))).thenReturn(Flux.just(STONES));
+        smallIndex.build().block();
+
+        //when
+        Flux<Album> result = smallIndex.search("stones", 10);
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(STONES)
+                .verifyComplete();
+        verify(repository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void shouldRebuildOnceBackUnderBudget() {
+        //given
+        List<AlbumSummary> catalog = IntStream.range(0, 2_000)
+                .mapToObj(i -> new AlbumSummary("AlbumId" + i, "Title " + i, "Artist " + i, MediaType.CD, 1))
+                .toList();
+        AlbumTrigramIndex probe = new AlbumTrigramIndex();
+        catalog.subList(0, 1_500).forEach(album -> probe.put(album.id(), album.title(), album.artistName()));
+        AlbumSearchIndex smallIndex = new AlbumSearchIndex(repository, probe.estimatedBytes());
+        AlbumSummary skipped = catalog.get(1_999);
+        Album skippedAlbum = new Album(skipped.id(), skipped.title(), skipped.artistName(), skipped.type(), skipped.stock(), null, 0L);
+        when(repository.findAllProjectedBy()).thenReturn(Flux.fromIterable(catalog), Flux.just(skipped));
+        when(repository.findAllById(anyIterable())).thenReturn(Flux.just(skippedAlbum));
+        smallIndex.build().block();
+        assertThat(smallIndex.size()).isEqualTo(1_501);
+
+        //when
+        catalog.subList(0, 1_000).forEach(album -> smallIndex.onAlbumRemoved(new AlbumRemovedEvent(album.id())));
+
+        //then
+        assertThat(smallIndex.size()).isEqualTo(502);
+        StepVerifier.create(smallIndex.search("title 1999", 10))
+                .expectNext(skippedAlbum)
+                .verifyComplete();
+        verify(repository, times(2)).findAllProjectedBy();
+        verify(repository, never()).findAllBy(any(TextCriteria.class));
+    }
+
+    private static AlbumSummary summary(Album album) {
+        return new AlbumSummary(album.id(), album.title(), album.artistName(), album.type(), album.stock());
+    }
+}
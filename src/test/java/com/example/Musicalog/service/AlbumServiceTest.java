@@ -1,19 +1,42 @@
 package com.example.Musicalog.service;
 
 import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.AlbumBatch;
+import com.example.Musicalog.domain.AlbumPage;
+import com.example.Musicalog.domain.AlbumPatch;
+import com.example.Musicalog.domain.AlbumSummary;
+import com.example.Musicalog.domain.Cover;
 import com.example.Musicalog.domain.MediaType;
+import com.example.Musicalog.domain.StockLevel;
 import com.example.Musicalog.repository.AlbumRepository;
+import com.example.Musicalog.repository.CausalSessions;
+import com.example.Musicalog.service.event.AlbumRemovedEvent;
+import com.example.Musicalog.service.event.AlbumSavedEvent;
+import com.example.Musicalog.service.exception.ConflictException;
+import com.example.Musicalog.service.exception.InsufficientStockException;
 import com.example.Musicalog.service.exception.NotFoundException;
+import com.example.Musicalog.service.exception.PreconditionFailedException;
+import com.mongodb.reactivestreams.client.ClientSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.query.TextCriteria;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
-import static org.mockito.Mockito.when;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.mockito.Mockito.*;
 
 @DataMongoTest
 public class AlbumServiceTest {
@@ -25,24 +48,33 @@ public class AlbumServiceTest {
     private static final String ARTIST1 = "Album Artist 1";
     private static final String ARTIST2 = "Album Artist 2";
     private static final Integer STOCK = 111;
-    private static final byte[] COVER = new byte[10];
+    private static final Cover COVER = new Cover("CoverId", "image/png", 10L, "CoverHash");
 
     @Mock
     private AlbumRepository repository;
 
+    @Mock
+    private CoverService coverService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final AlbumMetrics metrics = new AlbumMetrics(new SimpleMeterRegistry());
+
     private AlbumService service;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        service = new AlbumService(repository);
+        service = new AlbumService(repository, repository, coverService, new AlbumCache(1024 * 1024, Duration.ofMinutes(1)),
+                new AlbumRequestCoalescer(Set.of(), 1000, metrics), eventPublisher, metrics);
     }
 
     @Test
     void shouldFindAll() {
         //given
-        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER);
-        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
         when(repository.findAll()).thenReturn(Flux.just(album, album2));
 
         //when
@@ -55,6 +87,47 @@ public class AlbumServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void shouldFindAll_fromListingRepository() {
+        //given
+        AlbumRepository listingRepository = mock(AlbumRepository.class);
+        AlbumService routedService = new AlbumService(repository, listingRepository, coverService, new AlbumCache(1024 * 1024, Duration.ofMinutes(1)),
+                new AlbumRequestCoalescer(Set.of(), 1000, metrics), eventPublisher, metrics);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        when(listingRepository.findAll()).thenReturn(Flux.just(album));
+
+        //when
+        Flux<Album> result = routedService.findAll();
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(album)
+                .verifyComplete();
+        verify(repository, never()).findAll();
+    }
+
+    @Test
+    void shouldFindAll_withoutCoalescingInCausalSession() {
+        //given
+        AlbumRepository listingRepository = mock(AlbumRepository.class);
+        AlbumRequestCoalescer coalescer = mock(AlbumRequestCoalescer.class);
+        AlbumService routedService = new AlbumService(repository, listingRepository, coverService, new AlbumCache(1024 * 1024, Duration.ofMinutes(1)),
+                coalescer, eventPublisher, metrics);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        when(listingRepository.findAll()).thenReturn(Flux.just(album));
+
+        //when
+        Flux<Album> result = routedService.findAll()
+                .contextWrite(CausalSessions.bind(mock(ClientSession.class)));
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(album)
+                .verifyComplete();
+        verify(repository, never()).findAll();
+        verifyNoInteractions(coalescer);
+    }
+
     @Test
     void shouldFindAll_NotFound() {
         //given
@@ -72,8 +145,8 @@ public class AlbumServiceTest {
     @Test
     void shouldFindAllByTitle() {
         //given
-        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER);
-        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
         when(repository.findByTitleContainingIgnoreCase("album")).thenReturn(Flux.just(album, album2));
 
         //when
@@ -103,8 +176,8 @@ public class AlbumServiceTest {
     @Test
     void shouldFindAllByArtistName() {
         //given
-        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER);
-        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
         when(repository.findByArtistNameContainingIgnoreCase("Art")).thenReturn(Flux.just(album, album2));
 
         //when
@@ -131,10 +204,187 @@ public class AlbumServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void shouldFindAllSummaries() {
+        //given
+        AlbumSummary summary = new AlbumSummary(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK);
+        AlbumSummary summary2 = new AlbumSummary(ID2, TITLE2, ARTIST2, MediaType.CD, STOCK);
+        when(repository.findAllProjectedBy()).thenReturn(Flux.just(summary, summary2));
+
+        //when
+        Flux<AlbumSummary> result = service.findAllSummaries();
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(summary)
+                .expectNext(summary2)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldFindAllSummariesByTitle() {
+        //given
+        AlbumSummary summary = new AlbumSummary(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK);
+        when(repository.findSummariesByTitleContainingIgnoreCase("album")).thenReturn(Flux.just(summary));
+
+        //when
+        Flux<AlbumSummary> result = service.findAllSummariesByTitle("album");
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(summary)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldFindAllSummariesByArtistName() {
+        //given
+        AlbumSummary summary = new AlbumSummary(ID2, TITLE2, ARTIST2, MediaType.CD, STOCK);
+        when(repository.findSummariesByArtistNameContainingIgnoreCase("Art")).thenReturn(Flux.just(summary));
+
+        //when
+        Flux<AlbumSummary> result = service.findAllSummariesByArtistName("Art");
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(summary)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldFindPage_withNextCursor() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
+        when(repository.findAllByOrderByIdAsc(any())).thenReturn(Flux.just(album, album2));
+
+        //when
+        Mono<AlbumPage> result = service.findPage(null, 1);
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(new AlbumPage(List.of(album), AlbumCursor.encode(ID1)))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldFindPage_afterCursor() {
+        //given
+        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
+        when(repository.findAfterOrderByIdAsc(eq(ID1), any())).thenReturn(Flux.just(album2));
+
+        //when
+        Mono<AlbumPage> result = service.findPage(AlbumCursor.encode(ID1), 1);
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(new AlbumPage(List.of(album2), null))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldFindPage_invalidCursor() {
+        //when
+        Mono<AlbumPage> result = service.findPage("not a cursor!", 10);
+
+        //then
+        StepVerifier.create(result)
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void shouldFindPageByTitle() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        when(repository.findByTitleContainingIgnoreCaseOrderByIdAsc(eq("album"), any())).thenReturn(Flux.just(album));
+
+        //when
+        Mono<AlbumPage> result = service.findPageByTitle("album", null, 10);
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(new AlbumPage(List.of(album), null))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldFindPageByArtistName() {
+        //given
+        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
+        when(repository.findByArtistNameContainingIgnoreCaseAfterOrderByIdAsc(eq("Art"), eq(ID1), any())).thenReturn(Flux.just(album2));
+
+        //when
+        Mono<AlbumPage> result = service.findPageByArtistName("Art", AlbumCursor.encode(ID1), 10);
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(new AlbumPage(List.of(album2), null))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldSearchByTitlePrefix() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        when(repository.findByTitleKeyMatching("^album title")).thenReturn(Flux.just(album));
+
+        //when
+        Flux<Album> result = service.searchByTitlePrefix("Álbum Title");
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(album)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldSearchByArtistNamePrefix() {
+        //given
+        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
+        when(repository.findByArtistNameKeyMatching("^album artist")).thenReturn(Flux.just(album2));
+
+        //when
+        Flux<Album> result = service.searchByArtistNamePrefix("ALBUM ARTIST");
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(album2)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldSearchByTitlePrefix_blank() {
+        //when
+        Flux<Album> result = service.searchByTitlePrefix(" ");
+
+        //then
+        StepVerifier.create(result)
+                .expectNextCount(0)
+                .verifyComplete();
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void shouldSearch() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        when(repository.findAllBy(any(TextCriteria.class))).thenReturn(Flux.just(album));
+
+        //when
+        Flux<Album> result = service.search("title");
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(album)
+                .verifyComplete();
+    }
+
     @Test
     void shouldFindById() {
         //given
-        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
         when(repository.findById(ID1)).thenReturn(Mono.just(album));
 
         //when
@@ -146,6 +396,70 @@ public class AlbumServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void shouldFindAllById_inRequestOrder() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.CD, STOCK, COVER, null);
+        when(repository.findAllById(anyIterable())).thenReturn(Flux.just(album, album2));
+
+        //when
+        Mono<AlbumBatch<Album>> result = service.findAllById(List.of(ID2, "Missing", ID1, ID2));
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(new AlbumBatch<>(List.of(album2, album), List.of("Missing")))
+                .verifyComplete();
+        verify(repository, times(1)).findAllById(Set.of(ID2, "Missing", ID1));
+    }
+
+    @Test
+    void shouldFindAllSummariesById() {
+        //given
+        AlbumSummary summary = new AlbumSummary(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK);
+        when(repository.findSummariesByIdIn(anyCollection())).thenReturn(Flux.just(summary));
+
+        //when
+        Mono<AlbumBatch<AlbumSummary>> result = service.findAllSummariesById(List.of(ID1, ID2));
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(new AlbumBatch<>(List.of(summary), List.of(ID2)))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldFindAllById_TooManyIds() {
+        //given
+        List<String> ids = IntStream.rangeClosed(0, AlbumService.MAX_BATCH_SIZE).mapToObj(String::valueOf).toList();
+
+        //when
+        Mono<AlbumBatch<Album>> result = service.findAllById(ids);
+
+        //then
+        StepVerifier.create(result)
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        verify(repository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void shouldFindById_fromCache() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        when(repository.findById(ID1)).thenReturn(Mono.just(album));
+
+        //when
+        Mono<Album> result = service.findById(ID1)
+                .then(service.findById(ID1));
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(album)
+                .verifyComplete();
+        verify(repository, times(1)).findById(ID1);
+    }
+
     @Test
     void shouldFindById_NotFound() {
         //given
@@ -163,7 +477,8 @@ public class AlbumServiceTest {
     @Test
     void shouldSave() {
         //given
-        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        when(coverService.retain(COVER)).thenReturn(Mono.just(COVER));
         when(repository.save(album)).thenReturn(Mono.just(album));
 
         //when
@@ -173,12 +488,14 @@ public class AlbumServiceTest {
         StepVerifier.create(result)
                 .expectNext(album)
                 .verifyComplete();
+        verify(eventPublisher, times(1)).publishEvent(new AlbumSavedEvent(album));
     }
 
     @Test
     void shouldSave_alreadyExists() {
         //given
-        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        when(coverService.retain(COVER)).thenReturn(Mono.just(COVER));
         when(repository.save(album)).thenReturn(Mono.just(album));
 
         //when
@@ -191,31 +508,340 @@ public class AlbumServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void shouldSave_Conflict() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        when(coverService.retain(COVER)).thenReturn(Mono.just(COVER));
+        when(coverService.release(COVER)).thenReturn(Mono.empty());
+        when(repository.save(album)).thenReturn(Mono.error(new DuplicateKeyException("Duplicate id")));
+
+        //when
+        Mono<Album> result = service.save(album);
+
+        //then
+        StepVerifier.create(result)
+                .expectError(ConflictException.class)
+                .verify();
+        verify(coverService, times(1)).release(COVER);
+    }
+
+    @Test
+    void shouldSave_SharedCover() {
+        //given
+        Cover shared = new Cover("SharedCoverId", "image/png", 10L, COVER.hash());
+        Album album = new Album(ID2, TITLE2, ARTIST2, MediaType.CD, STOCK, COVER, null);
+        Album expected = new Album(ID2, TITLE2, ARTIST2, MediaType.CD, STOCK, shared, null);
+        when(coverService.retain(COVER)).thenReturn(Mono.just(shared));
+        when(repository.save(expected)).thenReturn(Mono.just(expected));
+
+        //when
+        Mono<Album> result = service.save(album);
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(expected)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldSave_UnknownCover() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        when(coverService.retain(COVER)).thenReturn(Mono.empty());
+
+        //when
+        Mono<Album> result = service.save(album);
+
+        //then
+        StepVerifier.create(result)
+                .expectError(NotFoundException.class)
+                .verify();
+        verify(repository, never()).save(any(Album.class));
+    }
+
+    @Test
+    void shouldSave_WithVersion() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, 3L);
+
+        //when
+        Mono<Album> result = service.save(album);
+
+        //then
+        StepVerifier.create(result)
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        verify(repository, never()).save(any(Album.class));
+        verify(coverService, never()).retain(any());
+    }
+
     @Test
     void shouldUpdate() {
         //given
-        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER);
-        Album album2 = new Album(ID1, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER);
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, 0L);
+        Album album2 = new Album(ID1, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
+        Album expected = new Album(ID1, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, 0L);
         when(repository.findById(ID1)).thenReturn(Mono.just(album));
-        when(repository.save(album2)).thenReturn(Mono.just(album2));
+        when(repository.save(expected)).thenReturn(Mono.just(expected));
 
         //when
-        Mono<Album> result = service.update(album2);
+        Mono<Album> result = service.update(album2, null);
 
         //then
         StepVerifier.create(result)
-                .expectNext(album2)
+                .expectNext(expected)
                 .verifyComplete();
+        verify(eventPublisher, times(1)).publishEvent(new AlbumSavedEvent(expected));
+    }
+
+    @Test
+    void shouldUpdate_Unversioned() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        Album album2 = new Album(ID1, TITLE2, ARTIST2, MediaType.VINYL, STOCK, null, null);
+        Album expected = new Album(ID1, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
+        Album updated = new Album(ID1, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, 1L);
+        when(repository.findById(ID1)).thenReturn(Mono.just(album));
+        when(repository.updateUnversioned(expected)).thenReturn(Mono.just(updated));
+
+        //when
+        Mono<Album> result = service.update(album2, null);
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(updated)
+                .verifyComplete();
+        verify(repository, never()).save(any(Album.class));
+    }
+
+    @Test
+    void shouldUpdate_Unversioned_ConcurrentModification() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        Album album2 = new Album(ID1, TITLE2, ARTIST2, MediaType.VINYL, STOCK, null, null);
+        when(repository.findById(ID1)).thenReturn(Mono.just(album));
+        when(repository.updateUnversioned(any(Album.class))).thenReturn(Mono.empty());
+
+        //when
+        Mono<Album> result = service.update(album2, null);
+
+        //then
+        StepVerifier.create(result)
+                .expectError(PreconditionFailedException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldUpdate_keepsExistingCover() {
+        //given
+        Cover existingCover = new Cover("ExistingCoverId", "image/jpeg", 20L, "ExistingCoverHash");
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, existingCover, 0L);
+        Album album2 = new Album(ID1, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
+        Album expected = new Album(ID1, TITLE2, ARTIST2, MediaType.VINYL, STOCK, existingCover, 0L);
+        when(repository.findById(ID1)).thenReturn(Mono.just(album));
+        when(repository.save(expected)).thenReturn(Mono.just(expected));
+
+        //when
+        Mono<Album> result = service.update(album2, null);
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(expected)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldUpdate_VersionMismatch() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, 4L);
+        Album album2 = new Album(ID1, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
+        when(repository.findById(ID1)).thenReturn(Mono.just(album));
+
+        //when
+        Mono<Album> result = service.update(album2, Set.of(3L));
+
+        //then
+        StepVerifier.create(result)
+                .expectError(PreconditionFailedException.class)
+                .verify();
+        verify(repository, never()).save(any(Album.class));
+    }
+
+    @Test
+    void shouldUpdate_AnyExpectedVersion() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, 4L);
+        Album album2 = new Album(ID1, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
+        Album edited = new Album(ID1, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, 4L);
+        Album saved = new Album(ID1, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, 5L);
+        when(repository.findById(ID1)).thenReturn(Mono.just(album));
+        when(repository.save(edited)).thenReturn(Mono.just(saved));
+
+        //when
+        Mono<Album> result = service.update(album2, Set.of(3L, 4L));
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(saved)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldUpdate_NoExpectedVersionMatches() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, 4L);
+        Album album2 = new Album(ID1, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
+        when(repository.findById(ID1)).thenReturn(Mono.just(album));
+
+        //when
+        Mono<Album> result = service.update(album2, Set.of());
+
+        //then
+        StepVerifier.create(result)
+                .expectError(PreconditionFailedException.class)
+                .verify();
+        verify(repository, never()).save(any(Album.class));
+    }
+
+    @Test
+    void shouldUpdate_ConcurrentModification() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, 4L);
+        Album album2 = new Album(ID1, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, 4L);
+        when(repository.findById(ID1)).thenReturn(Mono.just(album));
+        when(repository.save(album2)).thenReturn(Mono.error(new OptimisticLockingFailureException("Version changed")));
+
+        //when
+        Mono<Album> result = service.update(album2, Set.of(4L));
+
+        //then
+        StepVerifier.create(result)
+                .expectError(PreconditionFailedException.class)
+                .verify();
     }
 
     @Test
     void shouldUpdate_NotFound() {
         //given
-        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER);
+        Album album2 = new Album(ID2, TITLE2, ARTIST2, MediaType.VINYL, STOCK, COVER, null);
         when(repository.findById(ID2)).thenReturn(Mono.empty());
 
         //when
-        Mono<Album> result = service.update(album2);
+        Mono<Album> result = service.update(album2, null);
+
+        //then
+        StepVerifier.create(result)
+                .expectError(NotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldPatch() {
+        //given
+        AlbumPatch patch = new AlbumPatch(TITLE2, null, null, null);
+        Album patched = new Album(ID1, TITLE2, ARTIST1, MediaType.VINYL, STOCK, COVER, null);
+        when(repository.patch(ID1, patch, null)).thenReturn(Mono.just(patched));
+
+        //when
+        Mono<Album> result = service.patch(ID1, patch, null);
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(patched)
+                .verifyComplete();
+        verify(repository, never()).findById(ID1);
+        verify(eventPublisher, times(1)).publishEvent(new AlbumSavedEvent(patched));
+    }
+
+    @Test
+    void shouldPatch_NotFound() {
+        //given
+        AlbumPatch patch = new AlbumPatch(TITLE2, null, null, null);
+        when(repository.patch(ID2, patch, null)).thenReturn(Mono.empty());
+        when(repository.existsById(ID2)).thenReturn(Mono.just(false));
+
+        //when
+        Mono<Album> result = service.patch(ID2, patch, null);
+
+        //then
+        StepVerifier.create(result)
+                .expectError(NotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldPatch_VersionMismatch() {
+        //given
+        AlbumPatch patch = new AlbumPatch(TITLE2, null, null, null);
+        when(repository.patch(ID1, patch, Set.of(3L))).thenReturn(Mono.empty());
+        when(repository.existsById(ID1)).thenReturn(Mono.just(true));
+
+        //when
+        Mono<Album> result = service.patch(ID1, patch, Set.of(3L));
+
+        //then
+        StepVerifier.create(result)
+                .expectError(PreconditionFailedException.class)
+                .verify();
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void shouldAdjustStock() {
+        //given
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK - 1, COVER, null);
+        when(repository.adjustStock(ID1, -1)).thenReturn(Mono.just(album));
+
+        //when
+        Mono<StockLevel> result = service.adjustStock(ID1, -1);
+
+        //then
+        StepVerifier.create(result)
+                .expectNext(new StockLevel(ID1, STOCK - 1))
+                .verifyComplete();
+        verify(eventPublisher, times(1)).publishEvent(new AlbumSavedEvent(album));
+    }
+
+    @Test
+    void shouldAdjustStock_Insufficient() {
+        //given
+        when(repository.adjustStock(ID1, -1000)).thenReturn(Mono.empty());
+        when(repository.existsById(ID1)).thenReturn(Mono.just(true));
+
+        //when
+        Mono<StockLevel> result = service.adjustStock(ID1, -1000);
+
+        //then
+        StepVerifier.create(result)
+                .expectError(InsufficientStockException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldAdjustStock_Overflow() {
+        //given
+        when(repository.adjustStock(ID1, Integer.MAX_VALUE)).thenReturn(Mono.empty());
+        when(repository.existsById(ID1)).thenReturn(Mono.just(true));
+
+        //when
+        Mono<StockLevel> result = service.adjustStock(ID1, Integer.MAX_VALUE);
+
+        //then
+        StepVerifier.create(result)
+                .expectError(ConflictException.class)
+                .verify();
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void shouldAdjustStock_NotFound() {
+        //given
+        when(repository.adjustStock(ID2, 1)).thenReturn(Mono.empty());
+        when(repository.existsById(ID2)).thenReturn(Mono.just(false));
+
+        //when
+        Mono<StockLevel> result = service.adjustStock(ID2, 1);
 
         //then
         StepVerifier.create(result)
@@ -226,14 +852,35 @@ public class AlbumServiceTest {
     @Test
     void shouldRemove() {
         //given
-        when(repository.deleteById(ID1)).thenReturn(Mono.empty());
+        Album album = new Album(ID1, TITLE1, ARTIST1, MediaType.VINYL, STOCK, COVER, 2L);
+        when(repository.findAndRemove(ID1, null)).thenReturn(Mono.just(album));
+        when(coverService.release(COVER)).thenReturn(Mono.empty());
 
         //when
-        Mono<Void> result = service.remove(ID1);
+        Mono<Void> result = service.remove(ID1, null);
 
         //when
         StepVerifier.create(result)
                 .expectNextCount(0)
                 .verifyComplete();
+        verify(coverService, times(1)).release(COVER);
+        verify(eventPublisher, times(1)).publishEvent(new AlbumRemovedEvent(ID1));
+    }
+
+    @Test
+    void shouldRemove_VersionMismatch() {
+        //given
+        when(repository.findAndRemove(ID1, Set.of(3L))).thenReturn(Mono.empty());
+        when(repository.existsById(ID1)).thenReturn(Mono.just(true));
+
+        //when
+        Mono<Void> result = service.remove(ID1, Set.of(3L));
+
+        //then
+        StepVerifier.create(result)
+                .expectError(PreconditionFailedException.class)
+                .verify();
+        verify(coverService, never()).release(any());
+        verify(eventPublisher, never()).publishEvent(any());
     }
 }
@@ -0,0 +1,122 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.MediaType;
+import com.example.Musicalog.repository.AlbumRepository;
+import com.example.Musicalog.service.event.AlbumRemovedEvent;
+import com.example.Musicalog.service.event.AlbumSavedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class AlbumSnapshotServiceTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final Album ALBUM = new Album("AlbumId", "Album Title 1", "Album Artist 1", MediaType.VINYL, 111, null, 0L);
+    private static final Album ALBUM2 = new Album("AlbumId2", "Album Title 2", "Album Artist 2", MediaType.CD, 5, null, 0L);
+
+    @Mock
+    private AlbumRepository repository;
+
+    private AlbumSnapshotService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new AlbumSnapshotService(repository, OBJECT_MAPPER, true);
+    }
+
+    @Test
+    void shouldBuildGzippedCatalogue() {
+        //given
+        when(repository.findAll()).thenReturn(Flux.just(ALBUM, ALBUM2));
+
+        //when
+        StepVerifier.create(service.get())
+                .assertNext(snapshot -> {
+                    assertThat(snapshot.albums()).isEqualTo(2);
+                    assertThat(gunzip(snapshot.gzippedJson())).containsExactly(ALBUM, ALBUM2);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldBuildEmptyCatalogue() {
+        //given
+        when(repository.findAll()).thenReturn(Flux.empty());
+
+        //when
+        StepVerifier.create(service.get())
+                .assertNext(snapshot -> assertThat(gunzip(snapshot.gzippedJson())).isEmpty())
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReuseSnapshotUntilAlbumChanges() {
+        //given
+        when(repository.findAll()).thenReturn(Flux.just(ALBUM));
+
+        //when
+        Mono<AlbumSnapshot> result = service.get()
+                .then(service.get())
+                .doOnNext(ignored -> service.onAlbumSaved(new AlbumSavedEvent(ALBUM2)))
+                .then(service.get())
+                .doOnNext(ignored -> service.onAlbumRemoved(new AlbumRemovedEvent(ALBUM2.id())))
+                .then(service.get());
+
+        //then
+        StepVerifier.create(result)
+                .expectNextCount(1)
+                .verifyComplete();
+        verify(repository, times(3)).findAll();
+    }
+
+    @Test
+    void shouldRetryAfterFailure() {
+        //given
+        when(repository.findAll()).thenReturn(Flux.error(new IllegalStateException("Mongo down")), Flux.just(ALBUM));
+
+        //when
+        StepVerifier.create(service.get())
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        //then
+        StepVerifier.create(service.get())
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldBeEmptyWhenDisabled() {
+        //given
+        AlbumSnapshotService disabled = new AlbumSnapshotService(repository, OBJECT_MAPPER, false);
+
+        //when
+        StepVerifier.create(disabled.get())
+                .verifyComplete();
+
+        //then
+        verify(repository, never()).findAll();
+    }
+
+    private static Album[] gunzip(byte[] content) {
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return OBJECT_MAPPER.readValue(input, Album[].class);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
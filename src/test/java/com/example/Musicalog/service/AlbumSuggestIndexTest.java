@@ -0,0 +1,128 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.domain.Album;
+import com.example.Musicalog.domain.AlbumSummary;
+import com.example.Musicalog.domain.MediaType;
+import com.example.Musicalog.repository.AlbumRepository;
+import com.example.Musicalog.service.event.AlbumRemovedEvent;
+import com.example.Musicalog.service.event.AlbumSavedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+public class AlbumSuggestIndexTest {
+
+    private static final Album BEATLES = new Album("AlbumId", "Abbey Road", "The Beatles", MediaType.VINYL, 10, null, 0L);
+    private static final Album BAND = new Album("AlbumId2", "Music from Big Pink", "The Band", MediaType.CD, 30, null, 0L);
+
+    @Mock
+    private AlbumRepository repository;
+
+    private AlbumSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        index = new AlbumSuggestIndex(repository);
+        when(repository.findAllProjectedBy()).thenReturn(Flux.just(summary(BEATLES), summary(BAND)));
+    }
+
+    @Test
+    void shouldSuggestByStock() {
+        //given
+        StepVerifier.create(index.build())
+                .expectNext(2)
+                .verifyComplete();
+
+        //when //then
+        StepVerifier.create(index.suggestArtistNames("the", 10))
+                .expectNext(List.of("The Band", "The Beatles"))
+                .verifyComplete();
+        StepVerifier.create(index.suggestTitles("abb", 10))
+                .expectNext(List.of("Abbey Road"))
+                .verifyComplete();
+        verify(repository, never()).findByArtistNameKeyMatching(anyString());
+    }
+
+    @Test
+    void shouldApplySavesAndRemovals() {
+        //given
+        index.build().block();
+
+        //when
+        index.onAlbumSaved(new AlbumSavedEvent(new Album(BEATLES.id(), BEATLES.title(), BEATLES.artistName(), BEATLES.type(), 100, null, 1L)));
+        index.onAlbumRemoved(new AlbumRemovedEvent(BAND.id()));
+
+        //then
+        StepVerifier.create(index.suggestArtistNames("the", 10))
+                .expectNext(List.of("The Beatles"))
+                .verifyComplete();
+        StepVerifier.create(index.suggestTitles("music", 10))
+                .expectNext(List.of())
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldFallBackToPrefixSearchUntilBuilt() {
+        //given
+        when(repository.findByArtistNameKeyMatching("^the")).thenReturn(Flux.just(BEATLES, BEATLES, BAND));
+
+        //when //then
+        StepVerifier.create(index.suggestArtistNames("The", 10))
+                .expectNext(List.of("The Beatles", "The Band"))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldServeSuggestionsOnceRebuiltAfterFailure() {
+        //given
+        when(repository.findAllProjectedBy()).thenReturn(Flux.error(new RuntimeException("Unavailable")), Flux.just(summary(BEATLES), summary(BAND)));
+        when(repository.findByArtistNameKeyMatching("^the")).thenReturn(Flux.just(BEATLES));
+        StepVerifier.create(index.build())
+                .verifyError(RuntimeException.class);
+        StepVerifier.create(index.suggestArtistNames("the", 10))
+                .expectNext(List.of("The Beatles"))
+                .verifyComplete();
+
+        //when
+        StepVerifier.create(index.build())
+                .expectNext(2)
+                .verifyComplete();
+
+        //then
+        StepVerifier.create(index.suggestArtistNames("the", 10))
+                .expectNext(List.of("The Band", "The Beatles"))
+                .verifyComplete();
+        verify(repository, times(1)).findByArtistNameKeyMatching("^the");
+    }
+
+    @Test
+    void shouldKeepSuggestingWhileMerging() {
+        //given
+        index.build().block();
+
+        //when
+        for (int i = 0; i < PrefixSuggester.MAX_PENDING * 3; i++) {
+            index.onAlbumSaved(new AlbumSavedEvent(new Album("Album" + i, "Abbey Road " + i, "The Beatles", MediaType.CD, i, null, 0L)));
+        }
+
+        //then
+        StepVerifier.create(index.suggestTitles("abbey road 1228", 3))
+                .expectNext(List.of("Abbey Road 12287", "Abbey Road 12286", "Abbey Road 12285"))
+                .verifyComplete();
+        StepVerifier.create(index.suggestArtistNames("the", 10))
+                .expectNext(List.of("The Beatles", "The Band"))
+                .verifyComplete();
+    }
+
+    private static AlbumSummary summary(Album album) {
+        return new AlbumSummary(album.id(), album.title(), album.artistName(), album.type(), album.stock());
+    }
+}
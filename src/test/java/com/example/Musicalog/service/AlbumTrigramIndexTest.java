@@ -0,0 +1,125 @@
+package com.example.Musicalog.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AlbumTrigramIndexTest {
+
+    @Test
+    void shouldFindMisspelledArtist() {
+        //given
+        AlbumTrigramIndex index = new AlbumTrigramIndex();
+        index.put("1", "Abbey Road", "The Beatles");
+        index.put("2", "Let It Bleed", "The Rolling Stones");
+
+        //when
+        var matches = index.search("Beatels", 10);
+
+        //then
+        assertThat(matches).extracting(AlbumTrigramIndex.Match::albumId).containsExactly("1");
+    }
+
+    @Test
+    void shouldRankExactMatchesFirst() {
+        //given
+        AlbumTrigramIndex index = new AlbumTrigramIndex();
+        index.put("1", "Abbey Rode", "Tribute Band");
+        index.put("2", "Abbey Road", "The Beatles");
+        index.put("3", "Abbey Roads and Lanes", "Someone Else");
+
+        //when
+        var matches = index.search("abbey road", 10);
+
+        //then
+        assertThat(matches).extracting(AlbumTrigramIndex.Match::albumId).containsExactly("2", "3", "1");
+    }
+
+    @Test
+    void shouldFoldAccentsAndCase() {
+        //given
+        AlbumTrigramIndex index = new AlbumTrigramIndex();
+        index.put("1", "Homogenic", "Björk");
+
+        //when
+        var matches = index.search("BJORK", 10);
+
+        //then
+        assertThat(matches).extracting(AlbumTrigramIndex.Match::albumId).containsExactly("1");
+    }
+
+    @Test
+    void shouldReplaceAndRemoveAlbums() {
+        //given
+        AlbumTrigramIndex index = new AlbumTrigramIndex();
+        index.put("1", "Abbey Road", "The Beatles");
+        index.put("1", "Revolver", "The Beatles");
+
+        //when //then
+        assertThat(index.search("abbey", 10)).isEmpty();
+        assertThat(index.search("revolver", 10)).extracting(AlbumTrigramIndex.Match::albumId).containsExactly("1");
+
+        index.remove("1");
+        assertThat(index.search("revolver", 10)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void shouldKeepSlotWhenKeysAreUnchanged() {
+        //given
+        AlbumTrigramIndex index = new AlbumTrigramIndex();
+        index.put("1", "Abbey Road", "The Beatles");
+        long size = index.estimatedBytes();
+
+        //when
+        for (int i = 0; i < 10_000; i++) {
+            index.put("1", "ABBEY  ROAD", "the beatles");
+        }
+
+        //then
+        assertThat(index.estimatedBytes()).isEqualTo(size);
+        assertThat(index.search("abbey", 10)).extracting(AlbumTrigramIndex.Match::albumId).containsExactly("1");
+    }
+
+    @Test
+    void shouldCompactRemovedAlbums() {
+        //given
+        AlbumTrigramIndex index = new AlbumTrigramIndex();
+        for (int i = 0; i < 5_000; i++) {
+            index.put("album" + i, "Title " + i, "Artist " + i);
+        }
+        long fullSize = index.estimatedBytes();
+
+        //when
+        for (int i = 0; i < 4_900; i++) {
+            index.remove("album" + i);
+        }
+
+        //then
+        assertThat(index.size()).isEqualTo(100);
+        assertThat(index.estimatedBytes()).isLessThan(fullSize / 10);
+        assertThat(index.search("artist 4999", 1)).extracting(AlbumTrigramIndex.Match::albumId).containsExactly("album4999");
+    }
+
+    @Test
+    void shouldKeepMemoryPerAlbumBounded() {
+        //given
+        AlbumTrigramIndex index = new AlbumTrigramIndex();
+
+        //when
+        for (int i = 0; i < 20_000; i++) {
+            index.put("%024x".formatted(i), "Album Title Number " + i, "Artist Name " + (i % 500));
+        }
+
+        //then
+        assertThat(index.estimatedBytes() / index.size()).isLessThan(1_024);
+    }
+
+    @Test
+    void shouldCountTranspositionAsSingleEdit() {
+        //when //then
+        assertThat(AlbumTrigramIndex.editDistance("beatels", "beatles")).isEqualTo(1);
+        assertThat(AlbumTrigramIndex.editDistance("radiohead", "radiohed")).isEqualTo(1);
+        assertThat(AlbumTrigramIndex.editDistance("abba", "queen")).isEqualTo(5);
+    }
+}
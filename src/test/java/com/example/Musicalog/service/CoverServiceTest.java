@@ -0,0 +1,123 @@
+package com.example.Musicalog.service;
+
+import com.example.Musicalog.domain.Cover;
+import com.example.Musicalog.service.event.CoverDeletedEvent;
+import com.mongodb.client.result.DeleteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.mongodb.gridfs.ReactiveGridFsTemplate;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.Mockito.*;
+
+public class CoverServiceTest {
+
+    private static final ObjectId FILE_ID = new ObjectId();
+    private static final Cover COVER = new Cover(FILE_ID.toHexString(), "image/png", 10L, "CoverHash");
+
+    @Mock
+    private ReactiveGridFsTemplate gridFsTemplate;
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private CoverService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new CoverService(gridFsTemplate, mongoTemplate, eventPublisher, new AlbumMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void shouldDeleteCoverOnLastRelease() {
+        //given
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(Document.class), eq(CoverService.FILES_COLLECTION)))
+                .thenReturn(Mono.just(file(0)));
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(Document.class), eq(CoverService.FILES_COLLECTION)))
+                .thenReturn(Mono.just(file(0)));
+        when(mongoTemplate.remove(any(Query.class), eq(CoverService.CHUNKS_COLLECTION)))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(1)));
+
+        //when
+        Mono<Void> result = service.release(COVER);
+
+        //then
+        StepVerifier.create(result)
+                .verifyComplete();
+        verify(mongoTemplate, times(1)).remove(any(Query.class), eq(CoverService.CHUNKS_COLLECTION));
+        verify(eventPublisher, times(1)).publishEvent(new CoverDeletedEvent(COVER));
+    }
+
+    @Test
+    void shouldKeepCoverRetainedBeforeDeletion() {
+        //given
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(Document.class), eq(CoverService.FILES_COLLECTION)))
+                .thenReturn(Mono.just(file(0)));
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(Document.class), eq(CoverService.FILES_COLLECTION)))
+                .thenReturn(Mono.empty());
+
+        //when
+        Mono<Void> result = service.release(COVER);
+
+        //then
+        StepVerifier.create(result)
+                .verifyComplete();
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(CoverService.CHUNKS_COLLECTION));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void shouldKeepCoverStillReferenced() {
+        //given
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(Document.class), eq(CoverService.FILES_COLLECTION)))
+                .thenReturn(Mono.just(file(1)));
+
+        //when
+        Mono<Void> result = service.release(COVER);
+
+        //then
+        StepVerifier.create(result)
+                .verifyComplete();
+        verify(mongoTemplate, never()).findAndRemove(any(Query.class), eq(Document.class), eq(CoverService.FILES_COLLECTION));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void shouldIgnoreReleaseOfUnreferencedCover() {
+        //given
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(Document.class), eq(CoverService.FILES_COLLECTION)))
+                .thenReturn(Mono.empty());
+
+        //when
+        Mono<Void> result = service.release(COVER);
+
+        //then
+        StepVerifier.create(result)
+                .verifyComplete();
+        verify(mongoTemplate, times(1)).findAndModify(argThat((Query query) -> query.getQueryObject().toJson().contains("$gt")),
+                any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(Document.class), eq(CoverService.FILES_COLLECTION));
+        verify(mongoTemplate, never()).findAndRemove(any(Query.class), eq(Document.class), eq(CoverService.FILES_COLLECTION));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private static Document file(int refs) {
+        return new Document("_id", FILE_ID)
+                .append("length", 10L)
+                .append("metadata", new Document("contentType", "image/png").append("hash", "CoverHash").append("refs", refs));
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.Musicalog.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PrefixSuggesterTest {
+
+    @Test
+    void shouldSuggestHeaviestTermsFirst() {
+        //given
+        PrefixSuggester suggester = new PrefixSuggester();
+        suggester.add("The Beatles", 10);
+        suggester.add("The Band", 30);
+        suggester.add("Thelonious Monk", 1);
+        suggester.add("Radiohead", 50);
+        suggester.flush();
+
+        //when
+        var suggestions = suggester.suggest("the", 2);
+
+        //then
+        assertThat(suggestions).containsExactly("The Band", "The Beatles");
+    }
+
+    @Test
+    void shouldMergeTermsOfSeveralAlbums() {
+        //given
+        PrefixSuggester suggester = new PrefixSuggester();
+        suggester.add("The Band", 30);
+        suggester.add("The Beatles", 20);
+        suggester.add("the  beatles", 20);
+
+        //when
+        var suggestions = suggester.suggest("THE B", 10);
+
+        //then
+        assertThat(suggestions).containsExactly("The Beatles", "The Band");
+        assertThat(suggester.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldFoldAccentsAndCase() {
+        //given
+        PrefixSuggester suggester = new PrefixSuggester();
+        suggester.add("Björk", 1);
+
+        //when
+        var suggestions = suggester.suggest("BJO", 10);
+
+        //then
+        assertThat(suggestions).containsExactly("Björk");
+    }
+
+    @Test
+    void shouldApplyChangesBeforeAndAfterFlush() {
+        //given
+        PrefixSuggester suggester = new PrefixSuggester();
+        int beatles = suggester.add("The Beatles", 10);
+        suggester.add("The Band", 30);
+        suggester.flush();
+
+        //when
+        suggester.remove(beatles, 10);
+        suggester.add("Thelonious Monk", 1);
+
+        //then
+        assertThat(suggester.suggest("the", 10)).containsExactly("The Band", "Thelonious Monk");
+        suggester.add("The Beatles", 100);
+        assertThat(suggester.suggest("the", 10)).containsExactly("The Beatles", "The Band", "Thelonious Monk");
+        suggester.flush();
+        assertThat(suggester.suggest("the", 10)).containsExactly("The Beatles", "The Band", "Thelonious Monk");
+        assertThat(suggester.size()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldAskForMergeOnceEnoughTermsArePending() {
+        //given
+        PrefixSuggester suggester = new PrefixSuggester();
+
+        //when
+        for (int i = 0; i < PrefixSuggester.MAX_PENDING * 3; i++) {
+            add(suggester, "Album " + i, i);
+        }
+
+        //then
+        assertThat(suggester.suggest("album 1", 3)).containsExactly("Album 12287", "Album 12286", "Album 12285");
+        assertThat(suggester.suggest("album 42", 20)).hasSize(20).startsWith("Album 4299", "Album 4298");
+        assertThat(suggester.suggest("jazz", 10)).isEmpty();
+        assertThat(suggester.suggest(" ", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldReuseRemovedTerms() {
+        //given
+        PrefixSuggester suggester = new PrefixSuggester();
+        int[] terms = new int[PrefixSuggester.MAX_PENDING * 2];
+        for (int i = 0; i < terms.length; i++) {
+            terms[i] = suggester.add("Album " + i, 1);
+        }
+        suggester.flush();
+        long bytes = suggester.estimatedBytes();
+
+        //when
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < terms.length; i++) {
+                suggester.remove(terms[i], 1);
+                terms[i] = add(suggester, "Album " + round + "-" + i, 1);
+            }
+        }
+
+        //then
+        assertThat(suggester.size()).isEqualTo(terms.length);
+        assertThat(suggester.suggest("album 4-", 1)).containsExactly("Album 4-0");
+        assertThat(suggester.suggest("album 3-", 1)).isEmpty();
+        assertThat(suggester.estimatedBytes()).isLessThan(bytes * 3);
+    }
+
+    @Test
+    void shouldReplayChangesMadeWhileMerging() {
+        //given
+        PrefixSuggester suggester = new PrefixSuggester();
+        int beatles = suggester.add("The Beatles", 10);
+        int band = suggester.add("The Band", 30);
+        int doors = suggester.add("The Doors", 5);
+        suggester.flush();
+        suggester.remove(doors, 5);
+        int byrds = suggester.add("The Byrds", 20);
+        PrefixSuggester.Merge merge = suggester.beginMerge();
+
+        //when
+        suggester.remove(band, 30);
+        suggester.add("The Beatles", 50);
+        merge.build();
+        suggester.add("The Doors", 1);
+        suggester.remove(byrds, 20);
+        suggester.add("The Who", 15);
+        assertThat(suggester.suggest("the", 10)).containsExactly("The Beatles", "The Who", "The Doors");
+        merge.publish();
+
+        //then
+        assertThat(suggester.suggest("the", 10)).containsExactly("The Beatles", "The Who", "The Doors");
+        assertThat(suggester.size()).isEqualTo(3);
+        suggester.remove(beatles, 10);
+        suggester.flush();
+        assertThat(suggester.suggest("the b", 10)).containsExactly("The Beatles");
+        assertThat(suggester.suggest("the d", 10)).containsExactly("The Doors");
+    }
+
+    private static int add(PrefixSuggester suggester, String text, long weight) {
+        int term = suggester.add(text, weight);
+        if (suggester.needsMerge()) {
+            suggester.flush();
+        }
+        return term;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.Musicalog.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ThumbnailsTest {
+
+    @Test
+    void shouldScaleToFitPreservingAspectRatio() throws IOException {
+        //given
+        BufferedImage image = Thumbnails.decode(png(400, 200));
+
+        //when
+        BufferedImage thumbnail = Thumbnails.decode(Thumbnails.scale(image, 64));
+
+        //then
+        assertThat(thumbnail.getWidth()).isEqualTo(64);
+        assertThat(thumbnail.getHeight()).isEqualTo(32);
+    }
+
+    @Test
+    void shouldNotUpscaleSmallImages() throws IOException {
+        //given
+        BufferedImage image = Thumbnails.decode(png(40, 30));
+
+        //when
+        BufferedImage thumbnail = Thumbnails.decode(Thumbnails.scale(image, 256));
+
+        //then
+        assertThat(thumbnail.getWidth()).isEqualTo(40);
+        assertThat(thumbnail.getHeight()).isEqualTo(30);
+    }
+
+    @Test
+    void shouldRejectUnsupportedImages() {
+        //when //then
+        assertThatThrownBy(() -> Thumbnails.decode(new byte[]{1, 2, 3}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRejectOversizedImagesBeforeDecoding() throws IOException {
+        //given
+        byte[] image = png(new BufferedImage(8192, 4096, BufferedImage.TYPE_BYTE_BINARY));
+
+        //when //then
+        assertThatThrownBy(() -> Thumbnails.decode(image))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("8192x4096");
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        return png(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB));
+    }
+
+    private static byte[] png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+}